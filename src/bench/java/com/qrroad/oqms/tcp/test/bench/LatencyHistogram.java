@@ -0,0 +1,88 @@
+package com.qrroad.oqms.tcp.test.bench;
+
+/**
+ * 나노초 단위 지연시간을 로그-선형 버킷(약 3% 정밀도)으로 집계하는 단일 스레드용 히스토그램.
+ * 연결(워커)마다 하나씩 두고 측정 종료 후 {@link #merge(LatencyHistogram)}로 합친다.
+ */
+final class LatencyHistogram {
+
+    private static final int LINEAR_BUCKETS = 64;
+    private static final int SUB_BUCKETS = 32;
+    private static final int MAX_SHIFT = 40;
+    private static final int BUCKET_COUNT = LINEAR_BUCKETS + MAX_SHIFT * SUB_BUCKETS;
+
+    private final long[] counts = new long[BUCKET_COUNT];
+    private long totalCount;
+    private long maxValue;
+
+    void record(long nanos) {
+        long value = Math.max(0L, nanos);
+        counts[indexOf(value)]++;
+        totalCount++;
+        if (value > maxValue) {
+            maxValue = value;
+        }
+    }
+
+    void merge(LatencyHistogram other) {
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            counts[i] += other.counts[i];
+        }
+        totalCount += other.totalCount;
+        maxValue = Math.max(maxValue, other.maxValue);
+    }
+
+    void reset() {
+        java.util.Arrays.fill(counts, 0L);
+        totalCount = 0L;
+        maxValue = 0L;
+    }
+
+    long getTotalCount() {
+        return totalCount;
+    }
+
+    long getMaxValue() {
+        return maxValue;
+    }
+
+    long percentile(double percentile) {
+        if (totalCount == 0) {
+            return 0L;
+        }
+
+        long threshold = (long) Math.ceil(totalCount * percentile / 100.0);
+        long seen = 0L;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            seen += counts[i];
+            if (seen >= threshold) {
+                return Math.min(valueOf(i), maxValue);
+            }
+        }
+        return maxValue;
+    }
+
+    private static int indexOf(long value) {
+        if (value < LINEAR_BUCKETS) {
+            return (int) value;
+        }
+
+        int msb = 63 - Long.numberOfLeadingZeros(value);
+        int shift = msb - 5; // 상위 6비트 유지 → [32, 64) 범위의 서브 버킷
+        if (shift > MAX_SHIFT) {
+            return BUCKET_COUNT - 1;
+        }
+        int sub = (int) (value >>> shift);
+        return LINEAR_BUCKETS + (shift - 1) * SUB_BUCKETS + (sub - SUB_BUCKETS);
+    }
+
+    private static long valueOf(int index) {
+        if (index < LINEAR_BUCKETS) {
+            return index;
+        }
+
+        int shift = (index - LINEAR_BUCKETS) / SUB_BUCKETS + 1;
+        long sub = (index - LINEAR_BUCKETS) % SUB_BUCKETS + SUB_BUCKETS;
+        return (sub << shift) + (1L << (shift - 1)); // 버킷 중간값
+    }
+}
@@ -0,0 +1,535 @@
+package com.qrroad.oqms.tcp.test.bench;
+
+import com.qrroad.oqms.tcp.test.config.ReloadableConfig;
+import com.qrroad.oqms.tcp.test.config.TcpTestProperties;
+import com.qrroad.oqms.tcp.test.handler.MessageHandler;
+import com.qrroad.oqms.tcp.test.ledger.AccountLedger;
+import com.qrroad.oqms.tcp.test.server.TcpTestServer;
+import com.qrroad.oqms.tcp.test.settlement.SettlementTotals;
+import com.qrroad.oqms.tcp.test.tls.TlsSupport;
+import com.qrroad.oqms.tcp.test.transport.Connection;
+import com.qrroad.oqms.tcp.test.transport.TcpConnection;
+import com.qrroad.oqms.tcp.test.transport.TransportStats;
+import com.qrroad.oqms.tcp.test.transport.UnixConnection;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.jpos.iso.ISOMsg;
+import org.jpos.iso.ISOPackager;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.PrintWriter;
+import java.lang.management.ManagementFactory;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * TcpTestServer 를 같은 JVM 에서 띄우고 루프백으로 부하를 주는 종단간 벤치마크.
+ *
+ * <p>연결 수 × 파이프라이닝 깊이 × 메시지 구성의 모든 조합을 차례로 측정하고,
+ * 처리량(msgs/sec), 지연 백분위수, 메시지당 CPU 시간, 메시지당 할당 바이트를 CSV 로 남긴다.
+ * CPU/할당은 서버 워커 스레드 기준과 프로세스(클라이언트 포함) 기준을 함께 기록한다.
+ * 서버 소켓의 메시지당 read/write 시스템 콜 수도 함께 남긴다.
+ *
+ * <p>설정은 시스템 프로퍼티로 받는다({@code ./gradlew loopbackBenchmark -Pbench.connections=1,16}).
+ * <ul>
+ *   <li>{@code bench.connections} 연결 수 목록 (기본 1,16,256,4096)</li>
+ *   <li>{@code bench.depths} 연결당 파이프라이닝 깊이 목록 (기본 1,8)</li>
+ *   <li>{@code bench.mixes} 메시지 구성 목록: network, payment, mixed (기본 network,mixed)</li>
+ *   <li>{@code bench.warmupSeconds}, {@code bench.durationSeconds} 워밍업/측정 시간 (기본 3/10)</li>
+ *   <li>{@code bench.label} 리포트에 남길 비교용 라벨 (예: 브랜치명)</li>
+ *   <li>{@code bench.tlsKeyStore}, {@code bench.tlsTrustStore}, {@code bench.tlsPassword}
+ *       지정 시 TLS 로 측정 (PKCS12)</li>
+ *   <li>{@code bench.writeCoalescing} 서버 응답 쓰기 병합 여부 (기본 true)</li>
+ *   <li>{@code bench.transports} 전송 방식 목록: tcp(루프백), unix(Unix 도메인 소켓) (기본 tcp)</li>
+ *   <li>{@code bench.reportDir} 리포트 디렉토리, {@code bench.baseline} 비교할 이전 리포트 CSV</li>
+ * </ul>
+ */
+public final class LoopbackBenchmark {
+
+    private static final String SERVER_WORKER_THREAD = "tcp-test-server-worker";
+    private static final int HEADER_LENGTH = 2;
+
+    private static final String CSV_HEADER = "label,model,connections,depth,mix,messages,errors,msgsPerSec,"
+            + "p50Us,p90Us,p99Us,p999Us,maxUs,serverCpuNsPerMsg,processCpuNsPerMsg,"
+            + "serverAllocBytesPerMsg,processAllocBytesPerMsg,serverReadsPerMsg,serverWritesPerMsg";
+
+    private final ISOPackager packager;
+    private final TlsSupport tlsSupport;
+    private final TransportStats transportStats;
+    private final com.sun.management.ThreadMXBean threadBean =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+    private final com.sun.management.OperatingSystemMXBean osBean =
+            (com.sun.management.OperatingSystemMXBean) ManagementFactory.getOperatingSystemMXBean();
+
+    private LoopbackBenchmark(ISOPackager packager, TlsSupport tlsSupport, TransportStats transportStats) {
+        this.packager = packager;
+        this.tlsSupport = tlsSupport;
+        this.transportStats = transportStats;
+    }
+
+    public static void main(String[] args) throws Exception {
+        List<Integer> connections = intList("bench.connections", "1,16,256,4096");
+        List<Integer> depths = intList("bench.depths", "1,8");
+        List<String> mixes = Arrays.asList(System.getProperty("bench.mixes", "network,mixed").split(","));
+        int warmupSeconds = Integer.getInteger("bench.warmupSeconds", 3);
+        int durationSeconds = Integer.getInteger("bench.durationSeconds", 10);
+        String label = System.getProperty("bench.label", "current");
+        Path reportDir = Path.of(System.getProperty("bench.reportDir", "build/reports/benchmark"));
+        String baseline = System.getProperty("bench.baseline", "");
+        List<String> transports = Arrays.asList(System.getProperty("bench.transports", "tcp").split(","));
+
+        int port;
+        try (ServerSocket probe = new ServerSocket(0)) {
+            port = probe.getLocalPort();
+        }
+
+        TcpTestProperties properties = new TcpTestProperties();
+        properties.getServer().setPort(port);
+        properties.getServer().setBacklog(4096);
+        properties.getServer().setAutoStart(false);
+        properties.getServer().setWriteCoalescing(
+                Boolean.parseBoolean(System.getProperty("bench.writeCoalescing", "true")));
+        configureTls(properties);
+
+        Path unixSocket = null;
+        if (transports.stream().anyMatch(transport -> "unix".equals(transport.trim()))) {
+            unixSocket = Files.createTempDirectory("tcp-test-bench").resolve("server.sock");
+            properties.getServer().setUnixSocketPath(unixSocket.toString());
+        }
+
+        ReloadableConfig config = new ReloadableConfig(properties);
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        TlsSupport tlsSupport = new TlsSupport(properties, meterRegistry);
+        TransportStats transportStats = new TransportStats(meterRegistry);
+        LoopbackBenchmark benchmark = new LoopbackBenchmark(config.current().packager(), tlsSupport, transportStats);
+
+        MessageHandler messageHandler = new MessageHandler(new SettlementTotals(properties), new AccountLedger(properties));
+        TcpTestServer server = new TcpTestServer(properties, config, messageHandler, tlsSupport, transportStats);
+        Thread acceptThread = new Thread(server::startServer, "bench-accept");
+        acceptThread.setDaemon(true);
+        acceptThread.start();
+        awaitServer(server, port);
+
+        List<String> rows = new ArrayList<>();
+        System.out.println(CSV_HEADER);
+        try {
+            for (String transport : transports) {
+                for (String mix : mixes) {
+                    for (int depth : depths) {
+                        for (int connectionCount : connections) {
+                            String row = benchmark.run(label, transport.trim(), port, unixSocket,
+                                    connectionCount, depth, mix.trim(), warmupSeconds, durationSeconds);
+                            rows.add(row);
+                            System.out.println(row);
+                        }
+                    }
+                }
+            }
+        } finally {
+            server.stopServer();
+            if (unixSocket != null) {
+                Files.deleteIfExists(unixSocket);
+                Files.deleteIfExists(unixSocket.getParent());
+            }
+        }
+
+        Files.createDirectories(reportDir);
+        Path report = reportDir.resolve("loopback-"
+                + LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss")) + ".csv");
+        try (PrintWriter writer = new PrintWriter(Files.newBufferedWriter(report, StandardCharsets.UTF_8))) {
+            writer.println(CSV_HEADER);
+            rows.forEach(writer::println);
+        }
+        System.out.println("Report written to " + report.toAbsolutePath());
+
+        if (unixSocket != null && transports.size() > 1) {
+            compareTransports(rows);
+        }
+        if (!baseline.isBlank()) {
+            compare(Path.of(baseline), rows);
+        }
+    }
+
+    private String run(String label, String transport, int port, Path unixSocket, int connectionCount,
+                       int depth, String mix, int warmupSeconds, int durationSeconds) throws Exception {
+
+        byte[][] frames = buildFrames(mix);
+        List<Worker> workers = new ArrayList<>(connectionCount);
+        long errors = 0;
+
+        // 서버 백로그를 넘지 않도록 연결은 순차적으로 맺고 워커를 시작
+        try {
+            for (int i = 0; i < connectionCount; i++) {
+                Worker worker = new Worker(connect(transport, port, unixSocket), frames, depth);
+                workers.add(worker);
+                worker.start();
+            }
+        } catch (IOException e) {
+            System.err.printf("connections=%d: could not open connection %d (%s)%n",
+                    connectionCount, workers.size() + 1, e.getMessage());
+            errors++;
+        }
+
+        Thread.sleep(warmupSeconds * 1000L);
+
+        workers.forEach(Worker::startMeasuring);
+        Snapshot start = snapshot();
+        long startNanos = System.nanoTime();
+
+        Thread.sleep(durationSeconds * 1000L);
+
+        workers.forEach(Worker::stopMeasuring);
+        long elapsedNanos = System.nanoTime() - startNanos;
+        Snapshot end = snapshot();
+
+        workers.forEach(Worker::shutdown);
+        for (Worker worker : workers) {
+            worker.join(5000);
+            // 종료되지 않은 워커의 히스토그램은 아직 기록 중이므로 결과로 쓸 수 없음
+            if (worker.isAlive()) {
+                throw new IllegalStateException("connections=" + connectionCount + ", depth=" + depth
+                        + ": client worker did not stop within 5s");
+            }
+        }
+
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (Worker worker : workers) {
+            histogram.merge(worker.histogram);
+            errors += worker.errors.get();
+        }
+
+        long messages = histogram.getTotalCount();
+        double perMessage = messages == 0 ? 0.0 : 1.0 / messages;
+
+        // 연결 정리 후 다음 조합으로 넘어가기 전 서버 워커 종료 대기
+        Thread.sleep(500);
+
+        return String.format(Locale.ROOT,
+                "%s,%s,%d,%d,%s,%d,%d,%.1f,%.1f,%.1f,%.1f,%.1f,%.1f,%.0f,%.0f,%.0f,%.0f,%.3f,%.3f",
+                label, model(transport),
+                connectionCount, depth, mix, messages, errors,
+                messages * 1_000_000_000.0 / elapsedNanos,
+                histogram.percentile(50) / 1000.0,
+                histogram.percentile(90) / 1000.0,
+                histogram.percentile(99) / 1000.0,
+                histogram.percentile(99.9) / 1000.0,
+                histogram.getMaxValue() / 1000.0,
+                (end.serverCpuNanos - start.serverCpuNanos) * perMessage,
+                (end.processCpuNanos - start.processCpuNanos) * perMessage,
+                (end.serverAllocatedBytes - start.serverAllocatedBytes) * perMessage,
+                (end.processAllocatedBytes - start.processAllocatedBytes) * perMessage,
+                (end.serverReads - start.serverReads) * perMessage,
+                (end.serverWrites - start.serverWrites) * perMessage);
+    }
+
+    private Connection connect(String transport, int port, Path unixSocket) throws IOException {
+        if ("unix".equals(transport)) {
+            return UnixConnection.connect(unixSocket.toString());
+        }
+        if (!"tcp".equals(transport)) {
+            throw new IllegalArgumentException("Unknown transport: " + transport);
+        }
+        Socket socket = new Socket();
+        socket.setTcpNoDelay(true);
+        socket.connect(new InetSocketAddress("127.0.0.1", port), 5000);
+        return new TcpConnection(tlsSupport.wrapClientSocket(socket, "localhost", port));
+    }
+
+    private String model(String transport) {
+        // Unix 도메인 소켓은 TLS 를 쓰지 않는다
+        if ("unix".equals(transport)) {
+            return "thread-per-connection+unix";
+        }
+        return tlsSupport.isServerEnabled() ? "thread-per-connection+tls" : "thread-per-connection";
+    }
+
+    private Snapshot snapshot() {
+        long[] ids = threadBean.getAllThreadIds();
+        long[] cpu = threadBean.getThreadCpuTime(ids);
+        long[] allocated = threadBean.getThreadAllocatedBytes(ids);
+        java.lang.management.ThreadInfo[] infos = threadBean.getThreadInfo(ids);
+
+        Snapshot snapshot = new Snapshot();
+        snapshot.processCpuNanos = osBean.getProcessCpuTime();
+        snapshot.serverReads = transportStats.server().getReads();
+        snapshot.serverWrites = transportStats.server().getWrites();
+        for (int i = 0; i < ids.length; i++) {
+            if (allocated[i] > 0) {
+                snapshot.processAllocatedBytes += allocated[i];
+            }
+            // 측정 구간 동안 살아있는 서버 워커 스레드만 합산 (연결은 구간 내내 유지됨)
+            if (infos[i] != null && SERVER_WORKER_THREAD.equals(infos[i].getThreadName())) {
+                if (cpu[i] > 0) {
+                    snapshot.serverCpuNanos += cpu[i];
+                }
+                if (allocated[i] > 0) {
+                    snapshot.serverAllocatedBytes += allocated[i];
+                }
+            }
+        }
+        return snapshot;
+    }
+
+    private byte[][] buildFrames(String mix) throws Exception {
+        // 구성 비율만큼 프레임을 배열에 채워 두고 워커가 무작위로 고른다
+        Map<String, Integer> weights = switch (mix) {
+            case "network" -> Map.of("network", 10);
+            case "payment" -> Map.of("payment", 10);
+            case "mixed" -> Map.of("payment", 7, "balance", 2, "network", 1);
+            default -> throw new IllegalArgumentException("Unknown message mix: " + mix);
+        };
+
+        List<byte[]> frames = new ArrayList<>();
+        int stan = 1;
+        for (Map.Entry<String, Integer> entry : weights.entrySet()) {
+            for (int i = 0; i < entry.getValue(); i++) {
+                ISOMsg msg = switch (entry.getKey()) {
+                    case "payment" -> payment(stan++, "000000", 10000L + i);
+                    case "balance" -> payment(stan++, "380000", 0L);
+                    default -> network(stan++);
+                };
+                frames.add(frame(msg.pack()));
+            }
+        }
+        return frames.toArray(new byte[0][]);
+    }
+
+    private ISOMsg payment(int stan, String processingCode, long amount) throws Exception {
+        ISOMsg msg = new ISOMsg();
+        msg.setPackager(packager);
+        msg.setMTI("0200");
+        msg.set(2, "4111111111111111");
+        msg.set(3, processingCode);
+        if (amount > 0) {
+            msg.set(4, String.format("%012d", amount));
+        }
+        msg.set(7, "0101120000");
+        msg.set(11, String.format("%06d", stan));
+        msg.set(12, "120000");
+        msg.set(13, "0101");
+        msg.set(18, "5999");
+        msg.set(22, "051");
+        msg.set(25, "00");
+        msg.set(37, String.format("%012d", stan));
+        msg.set(41, "BENCH001");
+        msg.set(42, "BENCH_MERCHANT");
+        msg.set(49, "410");
+        return msg;
+    }
+
+    private ISOMsg network(int stan) throws Exception {
+        ISOMsg msg = new ISOMsg();
+        msg.setPackager(packager);
+        msg.setMTI("0800");
+        msg.set(7, "0101120000");
+        msg.set(11, String.format("%06d", stan));
+        msg.set(70, "001");
+        return msg;
+    }
+
+    private static byte[] frame(byte[] body) {
+        byte[] frame = new byte[HEADER_LENGTH + body.length];
+        frame[0] = (byte) (body.length >> 8);
+        frame[1] = (byte) body.length;
+        System.arraycopy(body, 0, frame, HEADER_LENGTH, body.length);
+        return frame;
+    }
+
+    private static void configureTls(TcpTestProperties properties) {
+        String keyStore = System.getProperty("bench.tlsKeyStore", "");
+        if (keyStore.isBlank()) {
+            return;
+        }
+        String password = System.getProperty("bench.tlsPassword", "changeit");
+
+        TcpTestProperties.Tls serverTls = properties.getServer().getTls();
+        serverTls.setEnabled(true);
+        serverTls.setKeyStore(keyStore);
+        serverTls.setKeyStorePassword(password);
+
+        TcpTestProperties.Tls clientTls = properties.getClient().getTls();
+        clientTls.setEnabled(true);
+        clientTls.setTrustStore(System.getProperty("bench.tlsTrustStore", keyStore));
+        clientTls.setTrustStorePassword(password);
+    }
+
+    private static void awaitServer(TcpTestServer server, int port) throws InterruptedException {
+        // 프로브 연결은 TLS 핸드셰이크 실패 로그를 남기므로 running 플래그로만 확인
+        for (int i = 0; i < 100; i++) {
+            if (server.isRunning()) {
+                Thread.sleep(200);
+                return;
+            }
+            Thread.sleep(50);
+        }
+        throw new IllegalStateException("TCP Test Server did not start on port " + port);
+    }
+
+    private static void compare(Path baseline, List<String> rows) throws IOException {
+        Map<String, String[]> previous = new HashMap<>();
+        for (String line : Files.readAllLines(baseline, StandardCharsets.UTF_8)) {
+            if (line.startsWith("label,")) {
+                continue;
+            }
+            String[] cols = line.split(",");
+            previous.put(cols[1] + "/" + cols[2] + "/" + cols[3] + "/" + cols[4], cols);
+        }
+
+        System.out.println();
+        System.out.println("Comparison with " + baseline + " (model/connections/depth/mix: msgs/sec, p99)");
+        for (String row : rows) {
+            String[] cols = row.split(",");
+            String key = cols[1] + "/" + cols[2] + "/" + cols[3] + "/" + cols[4];
+            String[] base = previous.get(key);
+            if (base == null) {
+                System.out.printf("%-52s no baseline%n", key);
+                continue;
+            }
+            System.out.printf(Locale.ROOT, "%-52s throughput %+6.1f%%  p99 %+6.1f%%%n", key,
+                    change(base[7], cols[7]), change(base[10], cols[10]));
+        }
+    }
+
+    private static void compareTransports(List<String> rows) {
+        // 같은 연결 수/깊이/구성의 루프백 TCP 결과 대비 Unix 도메인 소켓 결과
+        Map<String, String[]> tcp = new HashMap<>();
+        for (String row : rows) {
+            String[] cols = row.split(",");
+            if (!cols[1].endsWith("+unix")) {
+                tcp.put(cols[2] + "/" + cols[3] + "/" + cols[4], cols);
+            }
+        }
+
+        System.out.println();
+        System.out.println("Unix domain socket vs loopback TCP (connections/depth/mix: msgs/sec, p99, server CPU/msg)");
+        for (String row : rows) {
+            String[] cols = row.split(",");
+            String key = cols[2] + "/" + cols[3] + "/" + cols[4];
+            String[] base = tcp.get(key);
+            if (!cols[1].endsWith("+unix") || base == null) {
+                continue;
+            }
+            System.out.printf(Locale.ROOT, "%-24s throughput %+6.1f%%  p99 %+6.1f%%  cpu %+6.1f%%%n", key,
+                    change(base[7], cols[7]), change(base[10], cols[10]), change(base[13], cols[13]));
+        }
+    }
+
+    private static double change(String before, String after) {
+        double b = Double.parseDouble(before);
+        return b == 0.0 ? 0.0 : (Double.parseDouble(after) - b) * 100.0 / b;
+    }
+
+    private static List<Integer> intList(String property, String defaultValue) {
+        List<Integer> values = new ArrayList<>();
+        for (String value : System.getProperty(property, defaultValue).split(",")) {
+            values.add(Integer.parseInt(value.trim()));
+        }
+        return values;
+    }
+
+    private static final class Snapshot {
+        long processCpuNanos;
+        long serverCpuNanos;
+        long processAllocatedBytes;
+        long serverAllocatedBytes;
+        long serverReads;
+        long serverWrites;
+    }
+
+    /**
+     * 연결 하나를 맡아 깊이만큼 요청을 연속 전송하고 응답을 순서대로 읽는 부하 스레드.
+     */
+    private static final class Worker extends Thread {
+
+        private final Connection connection;
+        private final byte[][] frames;
+        private final int depth;
+        private final LatencyHistogram histogram = new LatencyHistogram();
+
+        private volatile boolean running = true;
+        private volatile boolean measuring;
+        private final AtomicLong errors = new AtomicLong();
+
+        Worker(Connection connection, byte[][] frames, int depth) {
+            super("bench-client");
+            setDaemon(true);
+            this.connection = connection;
+            this.frames = frames;
+            this.depth = depth;
+        }
+
+        void startMeasuring() {
+            measuring = true;
+        }
+
+        void stopMeasuring() {
+            measuring = false;
+        }
+
+        void shutdown() {
+            running = false;
+        }
+
+        @Override
+        public void run() {
+            byte[] header = new byte[HEADER_LENGTH];
+            byte[] body = new byte[8192];
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+
+            try (Connection connection = this.connection;
+                 InputStream in = new BufferedInputStream(connection.getInputStream(), 16384);
+                 OutputStream out = new BufferedOutputStream(connection.getOutputStream(), 16384)) {
+
+                while (running) {
+                    // 깊이만큼 요청을 한 번에 보내고 응답을 순서대로 수신
+                    for (int i = 0; i < depth; i++) {
+                        out.write(frames[random.nextInt(frames.length)]);
+                    }
+                    out.flush();
+                    long sentAt = System.nanoTime();
+
+                    boolean record = measuring;
+                    for (int i = 0; i < depth; i++) {
+                        readFully(in, header, HEADER_LENGTH);
+                        readFully(in, body, ((header[0] & 0xFF) << 8) | (header[1] & 0xFF));
+                        if (record) {
+                            histogram.record(System.nanoTime() - sentAt);
+                        }
+                    }
+                }
+            } catch (IOException e) {
+                if (running) {
+                    errors.incrementAndGet();
+                }
+            }
+        }
+
+        private static void readFully(InputStream in, byte[] buffer, int length) throws IOException {
+            int total = 0;
+            while (total < length) {
+                int read = in.read(buffer, total, length - total);
+                if (read == -1) {
+                    throw new IOException("Unexpected end of stream");
+                }
+                total += read;
+            }
+        }
+    }
+}
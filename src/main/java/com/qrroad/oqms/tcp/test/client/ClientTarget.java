@@ -0,0 +1,118 @@
+package com.qrroad.oqms.tcp.test.client;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 클라이언트 전송 대상 한 곳의 상태(진행 중 요청 수, 응답 지연 EWMA, 연속 실패)를 보관한다.
+ * 연속 실패가 임계치에 도달하면 일정 시간 라우팅에서 제외하고, 제외 시간이 지나면 다시 시도한다.
+ */
+public class ClientTarget {
+
+    private final String host;
+    private final int port;
+    private final String unixSocketPath;
+
+    private final AtomicInteger outstanding = new AtomicInteger();
+    private final AtomicLong latencyEwmaNanos = new AtomicLong();
+    private final AtomicInteger consecutiveFailures = new AtomicInteger();
+    private final LongAdder successes = new LongAdder();
+    private final LongAdder failures = new LongAdder();
+    private volatile long ejectedUntilMillis;
+
+    public ClientTarget(String host, int port) {
+        this(host, port, null);
+    }
+
+    /**
+     * @param unixSocketPath 지정하면 host/port 대신 Unix 도메인 소켓으로 연결
+     */
+    public ClientTarget(String host, int port, String unixSocketPath) {
+        this.host = host;
+        this.port = port;
+        this.unixSocketPath = unixSocketPath != null && !unixSocketPath.isBlank() ? unixSocketPath : null;
+    }
+
+    void begin() {
+        outstanding.incrementAndGet();
+    }
+
+    void end() {
+        outstanding.decrementAndGet();
+    }
+
+    void onSuccess(long latencyNanos) {
+        successes.increment();
+        consecutiveFailures.set(0);
+        ejectedUntilMillis = 0;
+        // 가중치 1/8 EWMA (첫 샘플은 그대로 사용)
+        latencyEwmaNanos.updateAndGet(ewma -> ewma == 0 ? latencyNanos : ewma + (latencyNanos - ewma) / 8);
+    }
+
+    /**
+     * @return 이번 실패로 라우팅에서 제외된 경우 true
+     */
+    boolean onFailure(int failureThreshold, long ejectMs) {
+        failures.increment();
+        if (consecutiveFailures.incrementAndGet() >= failureThreshold) {
+            boolean wasAvailable = isAvailable(System.currentTimeMillis());
+            ejectedUntilMillis = System.currentTimeMillis() + ejectMs;
+            return wasAvailable;
+        }
+        return false;
+    }
+
+    boolean isAvailable(long nowMillis) {
+        return nowMillis >= ejectedUntilMillis;
+    }
+
+    public boolean isAvailable() {
+        return isAvailable(System.currentTimeMillis());
+    }
+
+    public String getHost() {
+        return host;
+    }
+
+    public int getPort() {
+        return port;
+    }
+
+    public String getUnixSocketPath() {
+        return unixSocketPath;
+    }
+
+    public boolean isUnix() {
+        return unixSocketPath != null;
+    }
+
+    public int getOutstanding() {
+        return outstanding.get();
+    }
+
+    public long getLatencyEwmaNanos() {
+        return latencyEwmaNanos.get();
+    }
+
+    public int getConsecutiveFailures() {
+        return consecutiveFailures.get();
+    }
+
+    public long getSuccesses() {
+        return successes.sum();
+    }
+
+    public long getFailures() {
+        return failures.sum();
+    }
+
+    long getEjectedUntilMillis() {
+        return ejectedUntilMillis;
+    }
+
+    @Override
+    public String toString() {
+        return unixSocketPath != null ? "unix:" + unixSocketPath : host + ":" + port;
+    }
+}
@@ -0,0 +1,200 @@
+package com.qrroad.oqms.tcp.test.client;
+
+import com.qrroad.oqms.tcp.test.config.TcpTestProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * 클라이언트 전송 대상 목록과 라우팅/헤지 정책을 관리한다.
+ *
+ * <p>라우팅({@code tcp.test.client.routing}):
+ * <ul>
+ *   <li>{@code least-outstanding}: 진행 중 요청이 가장 적은 대상 (동률이면 임의 시작점 기준 첫 대상)</li>
+ *   <li>{@code latency-weighted}: 1 / (지연 EWMA × (진행 중 요청 + 1)) 비율로 무작위 선택</li>
+ * </ul>
+ * 헤지 지연은 최근 성공 응답 지연의 백분위수({@code hedge.percentile})를 {@code min-delay-ms}~{@code max-delay-ms}로 제한한 값이다.
+ *
+ * <p>메트릭: {@code tcp.test.client.target.outstanding{target}}, {@code tcp.test.client.target.available{target}},
+ * {@code tcp.test.client.hedges{outcome=sent|won}}
+ */
+@Slf4j
+@Component
+public class ClientTargetPool {
+
+    private static final String LEAST_OUTSTANDING = "least-outstanding";
+    private static final String LATENCY_WEIGHTED = "latency-weighted";
+    private static final long MIN_LATENCY_NANOS = 100_000L;
+    private static final int MIN_HEDGE_SAMPLES = 64;
+
+    private final TcpTestProperties.Client clientConfig;
+    private final List<ClientTarget> targets;
+    private final boolean latencyWeighted;
+    private final LatencyWindow latencyWindow = new LatencyWindow(1024);
+
+    private final Counter hedgesSent;
+    private final Counter hedgesWon;
+
+    public ClientTargetPool(TcpTestProperties properties, MeterRegistry meterRegistry) {
+        this.clientConfig = properties.getClient();
+        this.targets = Collections.unmodifiableList(createTargets(clientConfig));
+
+        String routing = clientConfig.getRouting();
+        if (!LEAST_OUTSTANDING.equals(routing) && !LATENCY_WEIGHTED.equals(routing)) {
+            throw new IllegalArgumentException("Unknown client routing: " + routing);
+        }
+        this.latencyWeighted = LATENCY_WEIGHTED.equals(routing);
+
+        for (ClientTarget target : targets) {
+            Gauge.builder("tcp.test.client.target.outstanding", target, ClientTarget::getOutstanding)
+                    .tag("target", target.toString())
+                    .register(meterRegistry);
+            Gauge.builder("tcp.test.client.target.available", target, t -> t.isAvailable() ? 1 : 0)
+                    .tag("target", target.toString())
+                    .register(meterRegistry);
+        }
+        this.hedgesSent = meterRegistry.counter("tcp.test.client.hedges", "outcome", "sent");
+        this.hedgesWon = meterRegistry.counter("tcp.test.client.hedges", "outcome", "won");
+
+        log.info("Client targets: {} (routing={}, hedge={})", targets, routing, isHedgingEnabled());
+    }
+
+    public List<ClientTarget> getTargets() {
+        return targets;
+    }
+
+    public String getRouting() {
+        return clientConfig.getRouting();
+    }
+
+    /**
+     * 라우팅 정책에 따라 대상을 고른다.
+     *
+     * @param exclude 제외할 대상 (헤지 요청의 1차 대상), 없으면 null
+     * @return 선택된 대상. 사용 가능한 대상이 없으면 제외 시간이 가장 먼저 끝나는 대상,
+     *         exclude 외에 대상이 없으면 null
+     */
+    public ClientTarget select(ClientTarget exclude) {
+        long now = System.currentTimeMillis();
+        ClientTarget selected = latencyWeighted
+                ? selectLatencyWeighted(exclude, now)
+                : selectLeastOutstanding(exclude, now);
+
+        if (selected == null) {
+            // 모두 제외 상태면 가장 먼저 복귀할 대상으로 시도
+            for (ClientTarget target : targets) {
+                if (target != exclude && (selected == null
+                        || target.getEjectedUntilMillis() < selected.getEjectedUntilMillis())) {
+                    selected = target;
+                }
+            }
+        }
+        return selected;
+    }
+
+    public void recordSuccess(ClientTarget target, long latencyNanos) {
+        target.onSuccess(latencyNanos);
+        latencyWindow.record(latencyNanos);
+    }
+
+    public void recordFailure(ClientTarget target, Exception cause) {
+        if (target.onFailure(clientConfig.getFailureThreshold(), clientConfig.getEjectMs())) {
+            log.warn("Target {} ejected for {}ms after {} consecutive failures: {}",
+                    target, clientConfig.getEjectMs(), target.getConsecutiveFailures(), cause.toString());
+        }
+    }
+
+    public boolean isHedgingEnabled() {
+        return clientConfig.getHedge().isEnabled() && targets.size() > 1;
+    }
+
+    /**
+     * 2차 대상으로 헤지 요청을 보내기 전 1차 응답을 기다릴 시간.
+     * 샘플이 충분히 쌓이기 전에는 {@code max-delay-ms}를 사용한다.
+     */
+    public long getHedgeDelayMs() {
+        TcpTestProperties.Hedge hedge = clientConfig.getHedge();
+        if (latencyWindow.count() < MIN_HEDGE_SAMPLES) {
+            return hedge.getMaxDelayMs();
+        }
+        long delayMs = latencyWindow.percentile(hedge.getPercentile()) / 1_000_000L;
+        return Math.max(hedge.getMinDelayMs(), Math.min(hedge.getMaxDelayMs(), delayMs));
+    }
+
+    void onHedgeSent() {
+        hedgesSent.increment();
+    }
+
+    void onHedgeWon() {
+        hedgesWon.increment();
+    }
+
+    private ClientTarget selectLeastOutstanding(ClientTarget exclude, long now) {
+        int size = targets.size();
+        int offset = size > 1 ? ThreadLocalRandom.current().nextInt(size) : 0;
+
+        ClientTarget best = null;
+        for (int i = 0; i < size; i++) {
+            ClientTarget target = targets.get((offset + i) % size);
+            if (target == exclude || !target.isAvailable(now)) {
+                continue;
+            }
+            if (best == null || target.getOutstanding() < best.getOutstanding()) {
+                best = target;
+            }
+        }
+        return best;
+    }
+
+    private ClientTarget selectLatencyWeighted(ClientTarget exclude, long now) {
+        int size = targets.size();
+        double[] weights = new double[size];
+        double total = 0;
+
+        for (int i = 0; i < size; i++) {
+            ClientTarget target = targets.get(i);
+            if (target == exclude || !target.isAvailable(now)) {
+                continue;
+            }
+            double latency = Math.max(target.getLatencyEwmaNanos(), MIN_LATENCY_NANOS);
+            weights[i] = 1.0 / (latency * (target.getOutstanding() + 1));
+            total += weights[i];
+        }
+        if (total == 0) {
+            return null;
+        }
+
+        double point = ThreadLocalRandom.current().nextDouble(total);
+        ClientTarget last = null;
+        for (int i = 0; i < size; i++) {
+            if (weights[i] == 0) {
+                continue;
+            }
+            last = targets.get(i);
+            point -= weights[i];
+            if (point < 0) {
+                return last;
+            }
+        }
+        return last;
+    }
+
+    private static List<ClientTarget> createTargets(TcpTestProperties.Client clientConfig) {
+        List<ClientTarget> targets = new ArrayList<>();
+        for (TcpTestProperties.Target target : clientConfig.getTargets()) {
+            targets.add(new ClientTarget(target.getHost(), target.getPort(), target.getUnixSocketPath()));
+        }
+        if (targets.isEmpty()) {
+            // 대상 목록이 없으면 기존 단일 대상 설정 사용
+            targets.add(new ClientTarget(clientConfig.getTargetHost(), clientConfig.getTargetPort()));
+        }
+        return targets;
+    }
+}
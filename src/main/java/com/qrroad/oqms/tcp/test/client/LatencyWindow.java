@@ -0,0 +1,59 @@
+package com.qrroad.oqms.tcp.test.client;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * 최근 응답 지연 샘플을 고정 크기 링에 보관하고 백분위수를 계산한다.
+ * 기록은 락 없이 슬롯을 덮어쓰며, 백분위수는 정렬 비용 때문에 일정 주기로만 다시 계산한다.
+ */
+class LatencyWindow {
+
+    private static final long REFRESH_NANOS = 1_000_000_000L;
+
+    private final AtomicLongArray samples;
+    private final int mask;
+    private final AtomicLong count = new AtomicLong();
+
+    private volatile long cachedAtNanos;
+    private volatile double cachedPercentile = -1;
+    private volatile long cachedValue;
+
+    LatencyWindow(int capacity) {
+        int size = Integer.highestOneBit(Math.max(capacity - 1, 1)) << 1;
+        this.samples = new AtomicLongArray(size);
+        this.mask = size - 1;
+    }
+
+    void record(long nanos) {
+        samples.set((int) (count.getAndIncrement() & mask), nanos);
+    }
+
+    long count() {
+        return count.get();
+    }
+
+    long percentile(double percentile) {
+        long now = System.nanoTime();
+        if (cachedPercentile == percentile && now - cachedAtNanos < REFRESH_NANOS) {
+            return cachedValue;
+        }
+
+        int n = (int) Math.min(count.get(), samples.length());
+        if (n == 0) {
+            return 0;
+        }
+        long[] sorted = new long[n];
+        for (int i = 0; i < n; i++) {
+            sorted[i] = samples.get(i);
+        }
+        Arrays.sort(sorted);
+
+        int index = Math.min(n - 1, Math.max(0, (int) Math.ceil(percentile / 100.0 * n) - 1));
+        cachedValue = sorted[index];
+        cachedPercentile = percentile;
+        cachedAtNanos = now;
+        return cachedValue;
+    }
+}
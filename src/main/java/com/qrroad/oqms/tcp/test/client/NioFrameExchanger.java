@@ -0,0 +1,289 @@
+package com.qrroad.oqms.tcp.test.client;
+
+import com.qrroad.oqms.tcp.test.config.TcpTestProperties;
+import com.qrroad.oqms.tcp.test.transport.SocketTuning;
+import com.qrroad.oqms.tcp.test.transport.TransportStats;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.ConnectException;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.net.SocketTimeoutException;
+import java.net.StandardProtocolFamily;
+import java.net.UnixDomainSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 셀렉터 스레드 하나로 요청 프레임(길이 헤더 + 본문)을 보내고 응답 본문을 받는 논블로킹 교환기.
+ * 요청마다 연결을 새로 맺는 기존 클라이언트 동작을 그대로 따르되, 대기 중인 요청이 스레드를 점유하지 않는다.
+ *
+ * <p>TCP 와 Unix 도메인 소켓을 지원하며 TLS 는 다루지 않는다. 채널 조작은 모두 셀렉터 스레드에서만 하고,
+ * 결과 future 는 콜백 스레드에서 완료해 후속 처리(언팩, 로깅)가 입출력을 막지 않게 한다.
+ */
+@Slf4j
+@Component
+public class NioFrameExchanger {
+
+    private static final long TICK_MS = 50;
+    private static final int MAX_MESSAGE_LENGTH = 8192; // 서버 ClientHandler 와 같은 상한
+
+    private final TcpTestProperties properties;
+    private final TransportStats.Side stats;
+    private final Selector selector;
+    private final Queue<Exchange> pending = new ConcurrentLinkedQueue<>();
+    private final Set<Exchange> active = new HashSet<>(); // 셀렉터 스레드 전용
+    private final ExecutorService callbackExecutor;
+    private final Thread selectorThread;
+    private volatile boolean running = true;
+    private long lastSweepNanos = System.nanoTime();
+
+    public NioFrameExchanger(TcpTestProperties properties, TransportStats transportStats) throws IOException {
+        this.properties = properties;
+        this.stats = transportStats.client();
+        this.selector = Selector.open();
+        this.callbackExecutor = Executors.newFixedThreadPool(
+                Math.max(2, Runtime.getRuntime().availableProcessors()), r -> {
+                    Thread t = new Thread(r, "tcp-test-client-callback");
+                    t.setDaemon(true);
+                    return t;
+                });
+        this.selectorThread = new Thread(this::run, "tcp-test-client-selector");
+        this.selectorThread.setDaemon(true);
+        this.selectorThread.start();
+    }
+
+    /**
+     * 대상에 프레임을 보내고 응답 본문(길이 헤더 제외)으로 완료되는 future 를 돌려준다.
+     * 연결 제한 시간 초과는 {@link SocketTimeoutException}, 연결 거부는 {@link ConnectException}으로 실패한다.
+     */
+    public CompletableFuture<byte[]> exchange(ClientTarget target, byte[] frame) {
+        Exchange exchange = new Exchange(target, frame);
+        if (!running) {
+            exchange.future.completeExceptionally(new IOException("Client is shut down"));
+            return exchange.future;
+        }
+        try {
+            // 이름 해석은 셀렉터 스레드를 막지 않도록 호출 스레드에서
+            exchange.address = target.isUnix()
+                    ? UnixDomainSocketAddress.of(target.getUnixSocketPath())
+                    : new InetSocketAddress(target.getHost(), target.getPort());
+        } catch (RuntimeException e) {
+            exchange.future.completeExceptionally(e);
+            return exchange.future;
+        }
+        pending.add(exchange);
+        selector.wakeup();
+        return exchange.future;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        running = false;
+        selector.wakeup();
+        try {
+            selectorThread.join(TimeUnit.SECONDS.toMillis(5));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        callbackExecutor.shutdown();
+    }
+
+    private void run() {
+        while (running) {
+            try {
+                selector.select(this::handle, TICK_MS);
+
+                Exchange exchange;
+                while ((exchange = pending.poll()) != null) {
+                    start(exchange);
+                }
+
+                long now = System.nanoTime();
+                if (now - lastSweepNanos >= TimeUnit.MILLISECONDS.toNanos(TICK_MS)) {
+                    lastSweepNanos = now;
+                    expire(now);
+                }
+
+            } catch (IOException | RuntimeException e) {
+                log.error("Client selector error", e);
+            }
+        }
+
+        // 종료 시 남은 요청을 모두 실패 처리
+        IOException closed = new IOException("Client is shut down");
+        Exchange exchange;
+        while ((exchange = pending.poll()) != null) {
+            fail(exchange, closed);
+        }
+        for (Exchange remaining : new HashSet<>(active)) {
+            fail(remaining, closed);
+        }
+        try {
+            selector.close();
+        } catch (IOException e) {
+            log.warn("Error closing client selector", e);
+        }
+    }
+
+    private void start(Exchange exchange) {
+        TcpTestProperties.Client clientConfig = properties.getClient();
+        try {
+            SocketChannel channel = exchange.target.isUnix()
+                    ? SocketChannel.open(StandardProtocolFamily.UNIX)
+                    : SocketChannel.open();
+            exchange.channel = channel;
+            channel.configureBlocking(false);
+            if (!exchange.target.isUnix()) {
+                SocketTuning.apply(channel, clientConfig.getSocket());
+            }
+
+            active.add(exchange);
+            if (channel.connect(exchange.address)) {
+                exchange.key = channel.register(selector, SelectionKey.OP_WRITE, exchange);
+                exchange.onConnected(clientConfig.getReadTimeoutMs());
+            } else {
+                exchange.key = channel.register(selector, SelectionKey.OP_CONNECT, exchange);
+                exchange.deadlineNanos = System.nanoTime()
+                        + TimeUnit.MILLISECONDS.toNanos(clientConfig.getConnectTimeoutMs());
+            }
+
+        } catch (IOException | RuntimeException e) {
+            fail(exchange, e);
+        }
+    }
+
+    private void handle(SelectionKey key) {
+        Exchange exchange = (Exchange) key.attachment();
+        try {
+            if (key.isConnectable() && exchange.channel.finishConnect()) {
+                exchange.onConnected(properties.getClient().getReadTimeoutMs());
+                key.interestOps(SelectionKey.OP_WRITE);
+            }
+            if (key.isValid() && key.isWritable()) {
+                stats.onWrite();
+                exchange.channel.write(exchange.request);
+                if (!exchange.request.hasRemaining()) {
+                    key.interestOps(SelectionKey.OP_READ);
+                }
+            }
+            if (key.isValid() && key.isReadable()) {
+                read(exchange);
+            }
+
+        } catch (IOException | RuntimeException e) {
+            fail(exchange, e);
+        }
+    }
+
+    private void read(Exchange exchange) throws IOException {
+        while (true) {
+            ByteBuffer buffer = exchange.body != null ? exchange.body : exchange.header;
+            stats.onRead();
+            if (exchange.channel.read(buffer) == -1) {
+                throw new EOFException("Unexpected end of stream");
+            }
+            if (buffer.hasRemaining()) {
+                return; // 나머지는 다음 readiness 에서
+            }
+            if (exchange.body != null) {
+                complete(exchange, exchange.body.array());
+                return;
+            }
+            exchange.body = ByteBuffer.allocate(parseMessageLength(exchange.header));
+        }
+    }
+
+    private void expire(long now) {
+        Iterator<Exchange> iterator = active.iterator();
+        while (iterator.hasNext()) {
+            Exchange exchange = iterator.next();
+            if (now - exchange.deadlineNanos < 0) {
+                continue;
+            }
+            iterator.remove();
+            TcpTestProperties.Client clientConfig = properties.getClient();
+            fail(exchange, exchange.connected
+                    ? new SocketTimeoutException("Read timed out after " + clientConfig.getReadTimeoutMs() + "ms")
+                    : new SocketTimeoutException("Connect timed out after " + clientConfig.getConnectTimeoutMs() + "ms"));
+        }
+    }
+
+    private void complete(Exchange exchange, byte[] body) {
+        close(exchange);
+        callbackExecutor.execute(() -> exchange.future.complete(body));
+    }
+
+    private void fail(Exchange exchange, Throwable error) {
+        close(exchange);
+        callbackExecutor.execute(() -> exchange.future.completeExceptionally(error));
+    }
+
+    private void close(Exchange exchange) {
+        active.remove(exchange);
+        if (exchange.key != null) {
+            exchange.key.cancel();
+        }
+        if (exchange.channel != null) {
+            try {
+                exchange.channel.close();
+            } catch (IOException e) {
+                log.warn("Error closing channel to {}", exchange.target, e);
+            }
+        }
+    }
+
+    /**
+     * 응답 길이 헤더를 읽는다. 0 이하이거나 상한을 넘으면 본문 버퍼를 할당하기 전에 {@link IOException}으로 끊어,
+     * 잘못된 응답을 보낸 연결의 요청만 실패하고 셀렉터와 다른 연결은 그대로 진행한다.
+     */
+    private int parseMessageLength(ByteBuffer header) throws IOException {
+        header.flip();
+        int length = header.remaining() == 2 ? header.getShort() & 0xFFFF : header.getInt();
+        if (length <= 0 || length > MAX_MESSAGE_LENGTH) {
+            throw new IOException("Invalid message length: " + length);
+        }
+        return length;
+    }
+
+    /**
+     * 요청 하나의 진행 상태. 셀렉터 스레드에서만 변경한다.
+     */
+    private final class Exchange {
+        private final ClientTarget target;
+        private final ByteBuffer request;
+        private final ByteBuffer header = ByteBuffer.allocate(properties.getClient().getMessageHeaderLength());
+        private final CompletableFuture<byte[]> future = new CompletableFuture<>();
+        private SocketAddress address;
+        private SocketChannel channel;
+        private SelectionKey key;
+        private ByteBuffer body;
+        private boolean connected;
+        private long deadlineNanos;
+
+        private Exchange(ClientTarget target, byte[] frame) {
+            this.target = target;
+            this.request = ByteBuffer.wrap(frame);
+        }
+
+        private void onConnected(int readTimeoutMs) {
+            connected = true;
+            deadlineNanos = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(readTimeoutMs);
+        }
+    }
+}
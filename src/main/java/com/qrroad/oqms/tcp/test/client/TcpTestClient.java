@@ -1,27 +1,91 @@
 package com.qrroad.oqms.tcp.test.client;
 
+import com.qrroad.oqms.tcp.test.config.ReloadableConfig;
 import com.qrroad.oqms.tcp.test.config.TcpTestProperties;
+import com.qrroad.oqms.tcp.test.tls.TlsSupport;
+import com.qrroad.oqms.tcp.test.transport.Connection;
+import com.qrroad.oqms.tcp.test.transport.SocketTuning;
+import com.qrroad.oqms.tcp.test.transport.TcpConnection;
+import com.qrroad.oqms.tcp.test.transport.TransportStats;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.jpos.iso.IFA_LLLNUM;
+import org.jpos.iso.IFA_LLNUM;
+import org.jpos.iso.IFA_NUMERIC;
+import org.jpos.iso.IFB_LLLNUM;
+import org.jpos.iso.IFB_LLNUM;
+import org.jpos.iso.IFB_NUMERIC;
+import org.jpos.iso.IFE_LLLNUM;
+import org.jpos.iso.IFE_LLNUM;
+import org.jpos.iso.IFE_NUMERIC;
+import org.jpos.iso.ISOBasePackager;
+import org.jpos.iso.ISOBinaryFieldPackager;
+import org.jpos.iso.ISOException;
+import org.jpos.iso.ISOFieldPackager;
 import org.jpos.iso.ISOMsg;
 import org.jpos.iso.ISOPackager;
+import org.jpos.iso.ISOUtil;
 import org.springframework.stereotype.Component;
 
 import java.io.*;
 import java.net.Socket;
+import java.net.SocketTimeoutException;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Pattern;
 
 @Slf4j
 @Component
 @RequiredArgsConstructor
 public class TcpTestClient {
 
+    private static final Pattern MTI_PATTERN = Pattern.compile("\\d{4}");
+    private static final Pattern HEX_PATTERN = Pattern.compile("([0-9A-Fa-f]{2})*");
+    private static final Pattern DIGITS_PATTERN = Pattern.compile("\\d*");
+    private static final int MAX_FIELD = 128;
+    private static final int MAX_MESSAGE_LENGTH = 8192; // 서버 ClientHandler 와 같은 상한
+
     private final TcpTestProperties properties;
-    private final ISOPackager packager;
+    private final ReloadableConfig config;
+    private final TlsSupport tlsSupport;
+    private final ClientTargetPool targetPool;
+    private final TransportStats transportStats;
+    private final NioFrameExchanger nioExchanger;
 
     private final AtomicInteger stanCounter = new AtomicInteger(1);
+    private final ScheduledExecutorService hedgeScheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "tcp-test-client-hedge");
+        t.setDaemon(true);
+        return t;
+    });
+    private ExecutorService blockingExecutor;
+
+    @PostConstruct
+    public void init() {
+        // 대기열을 제한해 느린 TLS 대상에 요청이 무한정 쌓이지 않게 하고, 가득 차면 즉시 거절(503)
+        int threads = properties.getClient().getBlockingThreads();
+        blockingExecutor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(properties.getClient().getBlockingQueueCapacity()), r -> {
+            Thread t = new Thread(r, "tcp-test-client-blocking");
+            t.setDaemon(true);
+            return t;
+        }, new ThreadPoolExecutor.AbortPolicy());
+    }
 
     public ISOMsg sendPaymentRequest(String pan, long amount, String terminalId) {
         return sendMessage(createPaymentRequest(pan, amount, terminalId));
@@ -39,52 +103,274 @@ public class TcpTestClient {
         return sendMessage(createNetworkTest());
     }
 
-    private ISOMsg sendMessage(ISOMsg requestMsg) {
-        Socket socket = null;
+    /**
+     * 임의의 MTI/필드 조합을 패키저 정의(iso8583-test.xml)로 검증한 뒤 전송한다.
+     * 필드 11(STAN)이 없으면 자동으로 채번한다.
+     *
+     * @throws IllegalArgumentException 패키저 정의에 맞지 않는 요청인 경우
+     */
+    public ISOMsg sendCustomMessage(String mti, Map<String, String> fields) {
+        return sendMessage(createCustomMessage(mti, fields));
+    }
+
+    public CompletableFuture<ISOMsg> sendPaymentRequestAsync(String pan, long amount, String terminalId) {
+        return sendMessageAsync(createPaymentRequest(pan, amount, terminalId));
+    }
+
+    public CompletableFuture<ISOMsg> sendBalanceInquiryAsync(String pan, String terminalId) {
+        return sendMessageAsync(createBalanceInquiry(pan, terminalId));
+    }
+
+    public CompletableFuture<ISOMsg> sendReversalRequestAsync(String pan, long amount,
+                                                            String originalStan, String originalRrn) {
+        return sendMessageAsync(createReversalRequest(pan, amount, originalStan, originalRrn));
+    }
+
+    public CompletableFuture<ISOMsg> sendNetworkTestAsync() {
+        return sendMessageAsync(createNetworkTest());
+    }
+
+    /**
+     * {@link #sendCustomMessage}의 비동기 버전. 검증 오류는 future 가 아닌 호출 시점에 던진다.
+     *
+     * @throws IllegalArgumentException 패키저 정의에 맞지 않는 요청인 경우
+     */
+    public CompletableFuture<ISOMsg> sendCustomMessageAsync(String mti, Map<String, String> fields) {
+        return sendMessageAsync(createCustomMessage(mti, fields));
+    }
+
+    /**
+     * 동기 전송. 실패하면 오류를 로그로 남기고 null 을 돌려준다.
+     */
+    public ISOMsg sendMessage(ISOMsg requestMsg) {
         try {
-            TcpTestProperties.Client clientConfig = properties.getClient();
+            return await(sendMessageAsync(requestMsg));
 
-            socket = new Socket();
-            socket.connect(new java.net.InetSocketAddress(
-                            clientConfig.getTargetHost(), clientConfig.getTargetPort()),
-                    clientConfig.getConnectTimeoutMs());
-            socket.setSoTimeout(clientConfig.getReadTimeoutMs());
-            socket.setKeepAlive(clientConfig.isKeepAlive());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        } catch (Exception e) {
+            log.error("Error sending message", e);
+            return null;
+        }
+    }
+
+    /**
+     * 라우팅 정책으로 고른 대상에 전송하고 응답으로 완료되는 future 를 돌려준다. 헤지가 켜져 있으면
+     * 0800 망관리/잔액조회 요청은 1차 대상의 응답이 헤지 지연 내에 오지 않을 때 2차 대상에도 보내고
+     * 먼저 온 응답을 사용한다.
+     *
+     * <p>평문 TCP/Unix 도메인 소켓은 셀렉터 스레드 하나로 처리해 대기 중인 요청이 스레드를 점유하지 않는다.
+     * TLS 는 블로킹 소켓이 필요하므로 {@code blocking-threads} 크기의 풀에서 처리하며, 풀의 대기열
+     * ({@code blocking-queue-capacity})이 가득 차면 {@link RejectedExecutionException}으로 즉시 실패한다.
+     * 읽기 제한 시간 초과는 {@link SocketTimeoutException}, 연결 실패는 {@link java.net.ConnectException}으로 실패한다.
+     */
+    public CompletableFuture<ISOMsg> sendMessageAsync(ISOMsg requestMsg) {
+        try {
+            if (targetPool.isHedgingEnabled() && isHedgeable(requestMsg)) {
+                return sendHedged(requestMsg);
+            }
+            return exchangeAsync(targetPool.select(null), requestMsg);
+
+        } catch (Exception e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    private CompletableFuture<ISOMsg> sendHedged(ISOMsg requestMsg) {
+        ClientTarget primary = targetPool.select(null);
+        CompletableFuture<ISOMsg> primaryResponse = exchangeAsync(primary, requestMsg);
+
+        // 먼저 성공한 응답을 사용하고, 모두 실패하면 마지막 오류를 전달
+        CompletableFuture<ISOMsg> firstSuccess = new CompletableFuture<>();
+        AtomicInteger remaining = new AtomicInteger(1);
+        primaryResponse.whenComplete((response, error) -> {
+            if (error == null) {
+                firstSuccess.complete(response);
+            } else if (remaining.decrementAndGet() == 0) {
+                firstSuccess.completeExceptionally(error);
+            }
+        });
 
-            try (InputStream inputStream = socket.getInputStream();
-                 OutputStream outputStream = socket.getOutputStream()) {
+        // 헤지 지연 초과 → 2차 대상으로 재전송
+        ScheduledFuture<?> hedge = hedgeScheduler.schedule(() -> {
+            ClientTarget secondary = targetPool.select(primary);
+            if (secondary == null || !remaining.compareAndSet(1, 2)) {
+                return; // 대상이 없거나 1차가 이미 실패로 끝남
+            }
+            if (firstSuccess.isDone()) {
+                remaining.decrementAndGet();
+                return;
+            }
+
+            targetPool.onHedgeSent();
+            log.debug("Hedging MTI={}, STAN={} to {} (primary {} pending)",
+                    requestMsg.getString(0), requestMsg.getString(11), secondary, primary);
+            exchangeAsync(secondary, requestMsg).whenComplete((response, error) -> {
+                if (error == null) {
+                    if (firstSuccess.complete(response)) {
+                        targetPool.onHedgeWon();
+                    }
+                } else if (remaining.decrementAndGet() == 0) {
+                    firstSuccess.completeExceptionally(error);
+                }
+            });
+        }, targetPool.getHedgeDelayMs(), TimeUnit.MILLISECONDS);
+
+        firstSuccess.whenComplete((response, error) -> hedge.cancel(false));
+        return firstSuccess;
+    }
+
+    private CompletableFuture<ISOMsg> exchangeAsync(ClientTarget target, ISOMsg requestMsg) {
+        if (tlsSupport.isClientEnabled() && !target.isUnix()) {
+            // TLS 핸드셰이크/레코드 처리는 블로킹 소켓으로
+            try {
+                return CompletableFuture.supplyAsync(() -> {
+                    try {
+                        return exchange(target, requestMsg);
+                    } catch (Exception e) {
+                        throw new CompletionException(e);
+                    }
+                }, blockingExecutor);
+            } catch (RejectedExecutionException e) {
+                // 대상 장애가 아니라 로컬 포화이므로 대상 실패로 집계하지 않음
+                return CompletableFuture.failedFuture(e);
+            }
+        }
+
+        byte[] frame;
+        try {
+            frame = createFrame(requestMsg);
+        } catch (Exception e) {
+            return CompletableFuture.failedFuture(e);
+        }
+
+        target.begin();
+        long startNanos = System.nanoTime();
+        log.info("Sending request to {}: MTI={}, STAN={}",
+                target, requestMsg.getString(0), requestMsg.getString(11));
+
+        return nioExchanger.exchange(target, frame)
+                .thenApply(body -> {
+                    try {
+                        return unpack(body, requestMsg.getPackager());
+                    } catch (ISOException e) {
+                        throw new CompletionException(e);
+                    }
+                })
+                .whenComplete((responseMsg, error) -> {
+                    target.end();
+                    if (error == null) {
+                        transportStats.client().onMessage();
+                        targetPool.recordSuccess(target, System.nanoTime() - startNanos);
+                        log.info("Received response from {}: MTI={}, STAN={}, Response={}",
+                                target, responseMsg.getString(0), responseMsg.getString(11), responseMsg.getString(39));
+                    } else {
+                        targetPool.recordFailure(target, unwrap(error));
+                    }
+                });
+    }
+
+    /**
+     * TLS 대상용 블로킹 교환.
+     */
+    private ISOMsg exchange(ClientTarget target, ISOMsg requestMsg) throws Exception {
+        TcpTestProperties.Client clientConfig = properties.getClient();
+        Connection connection = null;
+        target.begin();
+        long startNanos = System.nanoTime();
+        try {
+            connection = new TcpConnection(connectTcp(target, clientConfig));
+
+            TransportStats.Side stats = transportStats.client();
+            try (InputStream inputStream = new BufferedInputStream(stats.count(connection.getInputStream()));
+                 OutputStream outputStream = stats.count(connection.getOutputStream())) {
 
                 // 요청 전송
                 sendMessage(outputStream, requestMsg);
-                log.info("Sent request: MTI={}, STAN={}",
-                        requestMsg.getMTI(), requestMsg.getString(11));
+                log.info("Sent request to {}: MTI={}, STAN={}",
+                        target, requestMsg.getMTI(), requestMsg.getString(11));
 
                 // 응답 수신
-                ISOMsg responseMsg = receiveMessage(inputStream);
-                log.info("Received response: MTI={}, STAN={}, Response={}",
-                        responseMsg.getMTI(), responseMsg.getString(11), responseMsg.getString(39));
+                ISOMsg responseMsg = receiveMessage(inputStream, requestMsg.getPackager());
+                stats.onMessage();
+                targetPool.recordSuccess(target, System.nanoTime() - startNanos);
+                log.info("Received response from {}: MTI={}, STAN={}, Response={}",
+                        target, responseMsg.getMTI(), responseMsg.getString(11), responseMsg.getString(39));
 
                 return responseMsg;
             }
 
         } catch (Exception e) {
-            log.error("Error sending message", e);
-            return null;
+            targetPool.recordFailure(target, e);
+            throw e;
         } finally {
-            if (socket != null) {
-                try {
-                    socket.close();
-                } catch (IOException e) {
-                    log.warn("Error closing socket", e);
-                }
+            target.end();
+            if (connection != null) {
+                closeQuietly(connection);
             }
         }
     }
 
+    private Socket connectTcp(ClientTarget target, TcpTestProperties.Client clientConfig) throws IOException {
+        Socket socket = new Socket();
+        try {
+            SocketTuning.apply(socket, clientConfig.getSocket());
+            socket.connect(new java.net.InetSocketAddress(target.getHost(), target.getPort()),
+                    clientConfig.getConnectTimeoutMs());
+            socket.setSoTimeout(clientConfig.getReadTimeoutMs());
+            socket.setKeepAlive(clientConfig.isKeepAlive());
+
+            // TLS 사용 시 핸드셰이크 (동일 대상 재접속은 세션 재개)
+            return tlsSupport.wrapClientSocket(socket, target.getHost(), target.getPort());
+
+        } catch (IOException e) {
+            socket.close();
+            throw e;
+        }
+    }
+
+    private void closeQuietly(Connection connection) {
+        try {
+            connection.close();
+        } catch (IOException e) {
+            log.warn("Error closing connection", e);
+        }
+    }
+
+    private boolean isHedgeable(ISOMsg msg) throws ISOException {
+        String mti = msg.getMTI();
+        // 망관리(08xx) 또는 잔액조회처럼 중복 전송해도 부작용이 없는 요청만
+        return mti.charAt(1) == '8' || "380000".equals(msg.getString(3));
+    }
+
+    private ISOMsg await(CompletableFuture<ISOMsg> future) throws Exception {
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            throw unwrap(e);
+        }
+    }
+
+    private Exception unwrap(Throwable e) {
+        while ((e instanceof ExecutionException || e instanceof CompletionException) && e.getCause() != null) {
+            e = e.getCause();
+        }
+        return e instanceof Exception exception ? exception : new IllegalStateException(e);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        hedgeScheduler.shutdownNow();
+        if (blockingExecutor != null) {
+            blockingExecutor.shutdownNow();
+        }
+    }
+
     private ISOMsg createPaymentRequest(String pan, long amount, String terminalId) {
         try {
             ISOMsg msg = new ISOMsg();
-            msg.setPackager(packager);
+            msg.setPackager(config.current().packager());
             msg.setMTI("0200");
 
             String stan = String.format("%06d", stanCounter.getAndIncrement());
@@ -128,10 +414,23 @@ public class TcpTestClient {
         }
     }
 
+    /**
+     * 0400 취소 요청. 서버가 원거래와 짝을 맞추도록 필드 37 에는 새 RRN 이 아니라 원거래 RRN 을,
+     * 필드 90 에는 원거래 STAN 을 싣는다.
+     *
+     * @throws IllegalArgumentException 원거래 STAN 이 1~6자리 숫자가 아니거나 RRN 이 비었거나 12자를 넘는 경우
+     */
     private ISOMsg createReversalRequest(String pan, long amount, String originalStan, String originalRrn) {
+        if (originalStan == null || originalStan.isEmpty() || originalStan.length() > 6
+                || !DIGITS_PATTERN.matcher(originalStan).matches()) {
+            throw new IllegalArgumentException("originalStan must be 1-6 digits: " + originalStan);
+        }
+        if (originalRrn == null || originalRrn.isBlank() || originalRrn.length() > 12) {
+            throw new IllegalArgumentException("originalRrn must be 1-12 characters: " + originalRrn);
+        }
         try {
             ISOMsg msg = new ISOMsg();
-            msg.setPackager(packager);
+            msg.setPackager(config.current().packager());
             msg.setMTI("0400");
 
             String stan = String.format("%06d", stanCounter.getAndIncrement());
@@ -146,10 +445,11 @@ public class TcpTestClient {
             msg.set(11, stan);                         // STAN
             msg.set(12, currentTime);                  // Local time
             msg.set(13, currentDate);                  // Local date
-            msg.set(37, generateRrn());                // RRN
+            msg.set(37, originalRrn);                  // 원거래 RRN
             msg.set(41, "TEST001");                    // Terminal ID
             msg.set(42, "TEST_MERCHANT_001");          // Merchant ID
-            msg.set(90, originalStan + originalRrn + currentDate + "000000"); // Original data
+            // 원거래 정보: MTI(4) + STAN(6) + 전송일시(10, 미상) + 매입기관(11) + 전달기관(11)
+            msg.set(90, "0200" + ISOUtil.zeropad(originalStan, 6) + ISOUtil.zeropad("", 32));
 
             return msg;
 
@@ -161,7 +461,7 @@ public class TcpTestClient {
     private ISOMsg createNetworkTest() {
         try {
             ISOMsg msg = new ISOMsg();
-            msg.setPackager(packager);
+            msg.setPackager(config.current().packager());
             msg.setMTI("0800");
 
             String stan = String.format("%06d", stanCounter.getAndIncrement());
@@ -178,32 +478,144 @@ public class TcpTestClient {
         }
     }
 
+    private ISOMsg createCustomMessage(String mti, Map<String, String> fields) {
+        if (mti == null || !MTI_PATTERN.matcher(mti).matches()) {
+            throw new IllegalArgumentException("MTI must be 4 digits: " + mti);
+        }
+
+        ISOMsg msg = new ISOMsg();
+        msg.setPackager(config.current().packager());
+
+        try {
+            msg.setMTI(mti);
+
+            if (fields != null) {
+                for (Map.Entry<String, String> entry : fields.entrySet()) {
+                    setValidatedField(msg, parseFieldNumber(entry.getKey()), entry.getValue());
+                }
+            }
+
+            if (!msg.hasField(11)) {
+                msg.set(11, String.format("%06d", stanCounter.getAndIncrement())); // STAN
+            }
+
+        } catch (ISOException e) {
+            throw new IllegalArgumentException(e.getMessage(), e);
+        }
+
+        return msg;
+    }
+
+    private void setValidatedField(ISOMsg msg, int fieldNumber, String value) throws ISOException {
+        ISOFieldPackager fieldPackager = getFieldPackager(msg, fieldNumber);
+        if (fieldPackager == null) {
+            throw new IllegalArgumentException("Field " + fieldNumber + " is not defined in packager");
+        }
+        if (value == null) {
+            throw new IllegalArgumentException("Field " + fieldNumber
+                    + " (" + fieldPackager.getDescription() + ") has no value");
+        }
+
+        if (fieldPackager instanceof ISOBinaryFieldPackager) {
+            // 바이너리 필드는 HEX 문자열로 입력
+            if (!HEX_PATTERN.matcher(value).matches()) {
+                throw new IllegalArgumentException("Field " + fieldNumber
+                        + " (" + fieldPackager.getDescription() + ") must be an even-length hex string");
+            }
+            checkLength(fieldNumber, fieldPackager, value.length() / 2);
+            msg.set(fieldNumber, ISOUtil.hex2byte(value));
+        } else {
+            if (isNumeric(fieldPackager) && !DIGITS_PATTERN.matcher(value).matches()) {
+                throw new IllegalArgumentException("Field " + fieldNumber
+                        + " (" + fieldPackager.getDescription() + ") must contain digits only");
+            }
+            checkLength(fieldNumber, fieldPackager, value.length());
+            msg.set(fieldNumber, value);
+        }
+    }
+
+    private boolean isNumeric(ISOFieldPackager fieldPackager) {
+        // 숫자 전용 패키저 (하위 클래스 포함)
+        return fieldPackager instanceof IFA_NUMERIC
+                || fieldPackager instanceof IFA_LLNUM
+                || fieldPackager instanceof IFA_LLLNUM
+                || fieldPackager instanceof IFB_NUMERIC
+                || fieldPackager instanceof IFB_LLNUM
+                || fieldPackager instanceof IFB_LLLNUM
+                || fieldPackager instanceof IFE_NUMERIC
+                || fieldPackager instanceof IFE_LLNUM
+                || fieldPackager instanceof IFE_LLLNUM;
+    }
+
+    private void checkLength(int fieldNumber, ISOFieldPackager fieldPackager, int length) {
+        if (length > fieldPackager.getLength()) {
+            throw new IllegalArgumentException("Field " + fieldNumber
+                    + " (" + fieldPackager.getDescription() + ") exceeds max length "
+                    + fieldPackager.getLength() + ": " + length);
+        }
+    }
+
+    private int parseFieldNumber(String key) {
+        int fieldNumber;
+        try {
+            fieldNumber = Integer.parseInt(key);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid field number: " + key);
+        }
+
+        // 0(MTI), 1(비트맵)은 직접 지정 불가
+        if (fieldNumber < 2 || fieldNumber > MAX_FIELD) {
+            throw new IllegalArgumentException("Field number out of range (2-" + MAX_FIELD + "): " + key);
+        }
+        return fieldNumber;
+    }
+
+    private ISOFieldPackager getFieldPackager(ISOMsg msg, int fieldNumber) {
+        if (msg.getPackager() instanceof ISOBasePackager basePackager) {
+            return basePackager.getFieldPackager(fieldNumber);
+        }
+        return null;
+    }
+
     private void sendMessage(OutputStream outputStream, ISOMsg msg) throws Exception {
+        // 헤더와 본문을 한 번의 write 로 전송
+        outputStream.write(createFrame(msg));
+        outputStream.flush();
+    }
+
+    private byte[] createFrame(ISOMsg msg) throws ISOException {
         byte[] msgBytes = msg.pack();
         byte[] lengthHeader = createLengthHeader(msgBytes.length);
 
-        outputStream.write(lengthHeader);
-        outputStream.write(msgBytes);
-        outputStream.flush();
+        byte[] frame = new byte[lengthHeader.length + msgBytes.length];
+        System.arraycopy(lengthHeader, 0, frame, 0, lengthHeader.length);
+        System.arraycopy(msgBytes, 0, frame, lengthHeader.length, msgBytes.length);
+        return frame;
     }
 
-    private ISOMsg receiveMessage(InputStream inputStream) throws Exception {
+    private ISOMsg receiveMessage(InputStream inputStream, ISOPackager packager) throws Exception {
         // 길이 헤더 읽기
         int headerLength = properties.getClient().getMessageHeaderLength();
         byte[] lengthHeader = new byte[headerLength];
         readFully(inputStream, lengthHeader);
 
         int messageLength = parseMessageLength(lengthHeader);
+        if (messageLength <= 0 || messageLength > MAX_MESSAGE_LENGTH) {
+            throw new IOException("Invalid message length: " + messageLength);
+        }
 
         // 메시지 본문 읽기
         byte[] messageBytes = new byte[messageLength];
         readFully(inputStream, messageBytes);
 
-        // ISO8583 메시지 언팩
+        return unpack(messageBytes, packager);
+    }
+
+    private ISOMsg unpack(byte[] messageBytes, ISOPackager packager) throws ISOException {
+        // ISO8583 메시지 언팩 (요청과 같은 패키저 사용)
         ISOMsg msg = new ISOMsg();
         msg.setPackager(packager);
         msg.unpack(messageBytes);
-
         return msg;
     }
 
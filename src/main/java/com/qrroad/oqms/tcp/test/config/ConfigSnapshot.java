@@ -0,0 +1,14 @@
+package com.qrroad.oqms.tcp.test.config;
+
+import com.qrroad.oqms.tcp.test.iso.IsoFieldLayout;
+import org.jpos.iso.ISOPackager;
+
+import java.time.Instant;
+
+/**
+ * 한 시점의 패키저/필드 레이아웃/시뮬레이터 설정 묶음. 재적재 시 통째로 교체되며 내용은 바뀌지 않는다.
+ * 메시지 하나는 처음 읽은 스냅샷으로 끝까지 처리한다.
+ */
+public record ConfigSnapshot(long version, ISOPackager packager, IsoFieldLayout layout,
+                             SimulatorSettings simulator, Instant loadedAt) {
+}
@@ -0,0 +1,198 @@
+package com.qrroad.oqms.tcp.test.config;
+
+import com.qrroad.oqms.tcp.test.iso.IsoFieldLayout;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.jpos.iso.ISOPackager;
+import org.jpos.iso.packager.GenericPackager;
+import org.springframework.core.io.DefaultResourceLoader;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.time.Instant;
+import java.util.HashSet;
+import java.util.Properties;
+import java.util.Set;
+
+/**
+ * ISO8583 패키저와 시뮬레이터 설정을 불변 {@link ConfigSnapshot}으로 보관하고 무중단 재적재한다.
+ *
+ * <p>읽기 경로는 volatile 읽기 한 번({@link #current()})뿐이며 락을 잡지 않는다.
+ * 재적재는 새 스냅샷을 완전히 만든 뒤 참조만 교체하므로, 처리 중인 메시지는 이전 스냅샷으로 끝나고
+ * 이후 수신하는 프레임부터 새 설정을 사용한다. 재적재에 실패하면 기존 스냅샷을 유지한다.
+ * 트리거는 관리 엔드포인트 또는 {@code tcp.test.reload.watch} 파일 감시다.
+ */
+@Slf4j
+@Component
+public class ReloadableConfig {
+
+    private final TcpTestProperties properties;
+    private final ResourceLoader resourceLoader = new DefaultResourceLoader();
+
+    private volatile ConfigSnapshot current;
+    private WatchService watchService;
+
+    public ReloadableConfig(TcpTestProperties properties) {
+        this.properties = properties;
+        this.current = load(1L);
+    }
+
+    public ConfigSnapshot current() {
+        return current;
+    }
+
+    public synchronized ConfigSnapshot reload(String trigger) {
+        ConfigSnapshot previous = current;
+        ConfigSnapshot next = load(previous.version() + 1);
+        current = next;
+
+        log.info("Configuration reloaded by {}: version {} -> {}, simulator={}",
+                trigger, previous.version(), next.version(), next.simulator());
+        return next;
+    }
+
+    @PostConstruct
+    public void startWatcher() {
+        TcpTestProperties.Reload reload = properties.getReload();
+        if (!reload.isWatch()) {
+            return;
+        }
+
+        Set<Path> watchedFiles = new HashSet<>();
+        addIfFile(watchedFiles, reload.getPackagerLocation());
+        addIfFile(watchedFiles, reload.getSimulatorLocation());
+        if (watchedFiles.isEmpty()) {
+            log.warn("Configuration watch enabled but no file: locations configured");
+            return;
+        }
+
+        try {
+            watchService = FileSystems.getDefault().newWatchService();
+            Set<Path> directories = new HashSet<>();
+            for (Path file : watchedFiles) {
+                if (directories.add(file.getParent())) {
+                    file.getParent().register(watchService,
+                            StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+                }
+            }
+        } catch (IOException e) {
+            log.error("Failed to start configuration watcher", e);
+            return;
+        }
+
+        Thread watcher = new Thread(() -> watch(watchedFiles), "config-watcher");
+        watcher.setDaemon(true);
+        watcher.start();
+        log.info("Watching configuration files: {}", watchedFiles);
+    }
+
+    @PreDestroy
+    public void stopWatcher() {
+        if (watchService != null) {
+            try {
+                watchService.close();
+            } catch (IOException e) {
+                log.warn("Error closing configuration watcher", e);
+            }
+        }
+    }
+
+    private void watch(Set<Path> watchedFiles) {
+        try {
+            while (true) {
+                WatchKey key = watchService.take();
+                boolean changed = false;
+                for (WatchEvent<?> event : key.pollEvents()) {
+                    if (event.context() instanceof Path name
+                            && watchedFiles.contains(((Path) key.watchable()).resolve(name))) {
+                        changed = true;
+                    }
+                }
+                key.reset();
+
+                if (changed) {
+                    // 편집기가 여러 번에 나눠 쓰는 경우를 위해 잠시 대기 후 쌓인 이벤트를 비움
+                    Thread.sleep(200);
+                    WatchKey pending;
+                    while ((pending = watchService.poll()) != null) {
+                        pending.pollEvents();
+                        pending.reset();
+                    }
+
+                    try {
+                        reload("file-watch");
+                    } catch (Exception e) {
+                        log.error("Configuration reload failed, keeping version {}", current.version(), e);
+                    }
+                }
+            }
+        } catch (ClosedWatchServiceException e) {
+            log.debug("Configuration watcher closed");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private ConfigSnapshot load(long version) {
+        TcpTestProperties.Reload reload = properties.getReload();
+        try {
+            log.info("Loading ISO8583 packager configuration: {}", reload.getPackagerLocation());
+            ISOPackager packager = loadPackager(reload.getPackagerLocation());
+            IsoFieldLayout layout = IsoFieldLayout.of(packager);
+            SimulatorSettings simulator = SimulatorSettings.of(
+                    properties.getSimulator(), loadOverrides(reload.getSimulatorLocation()));
+
+            log.info("Successfully loaded ISO8583 packager (version={}, lazyView={})",
+                    version, layout.isSupported());
+            return new ConfigSnapshot(version, packager, layout, simulator, Instant.now());
+
+        } catch (Exception e) {
+            log.error("Failed to load ISO8583 packager", e);
+            throw new IllegalStateException("Failed to initialize ISO8583 packager", e);
+        }
+    }
+
+    private ISOPackager loadPackager(String location) throws Exception {
+        Resource resource = resourceLoader.getResource(location);
+        try (InputStream inputStream = resource.getInputStream()) {
+            GenericPackager packager = new GenericPackager();
+            packager.readFile(inputStream);
+            return packager;
+        }
+    }
+
+    private Properties loadOverrides(String location) throws IOException {
+        Properties overrides = new Properties();
+        if (location != null && !location.isBlank()) {
+            try (InputStream inputStream = resourceLoader.getResource(location).getInputStream()) {
+                overrides.load(inputStream);
+            }
+        }
+        return overrides;
+    }
+
+    private void addIfFile(Set<Path> files, String location) {
+        if (location == null || location.isBlank()) {
+            return;
+        }
+        Resource resource = resourceLoader.getResource(location);
+        if (resource.isFile()) {
+            try {
+                files.add(resource.getFile().toPath().toAbsolutePath());
+            } catch (IOException e) {
+                log.warn("Cannot watch configuration location: {}", location, e);
+            }
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package com.qrroad.oqms.tcp.test.config;
+
+import java.util.Properties;
+
+/**
+ * {@link com.qrroad.oqms.tcp.test.handler.MessageHandler}가 참조하는 시뮬레이터 동작 설정의 불변 스냅샷.
+ * 잘못된 값이면 생성 시 예외가 발생하므로 재적재가 거부되고 기존 스냅샷이 유지된다.
+ */
+public record SimulatorSettings(long amountLimit, long availableBalance) {
+
+    private static final long MAX_AMOUNT = 999_999_999_999_999L; // 필드 54 금액 15자리
+
+    public SimulatorSettings {
+        if (amountLimit < 0) {
+            throw new IllegalArgumentException("amount-limit must not be negative: " + amountLimit);
+        }
+        if (availableBalance < 0 || availableBalance > MAX_AMOUNT) {
+            throw new IllegalArgumentException("available-balance must be between 0 and " + MAX_AMOUNT
+                    + ": " + availableBalance);
+        }
+    }
+
+    /**
+     * application.yaml 의 기본값에 재적재 파일(.properties)의 값을 덮어쓴다.
+     */
+    public static SimulatorSettings of(TcpTestProperties.Simulator defaults, Properties overrides) {
+        return new SimulatorSettings(
+                longValue(overrides, "amount-limit", defaults.getAmountLimit()),
+                longValue(overrides, "available-balance", defaults.getAvailableBalance()));
+    }
+
+    private static long longValue(Properties properties, String key, long defaultValue) {
+        String value = properties.getProperty(key);
+        if (value == null || value.isBlank()) {
+            return defaultValue;
+        }
+        try {
+            return Long.parseLong(value.trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(key + " is not a number: " + value, e);
+        }
+    }
+}
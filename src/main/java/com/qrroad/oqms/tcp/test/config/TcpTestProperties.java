@@ -4,12 +4,20 @@ import lombok.Data;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.stereotype.Component;
 
+import java.util.ArrayList;
+import java.util.List;
+
 @Data
 @Component
 @ConfigurationProperties(prefix = "tcp.test")
 public class TcpTestProperties {
     private Server server = new Server();
     private Client client = new Client();
+    private Scenario scenario = new Scenario();
+    private Simulator simulator = new Simulator();
+    private Reload reload = new Reload();
+    private Settlement settlement = new Settlement();
+    private Ledger ledger = new Ledger();
 
     @Data
     public static class Server {
@@ -19,6 +27,11 @@ public class TcpTestProperties {
         private boolean autoStart = true;
         private int messageHeaderLength = 2;
         private String encoding = "UTF-8";
+        private Tls tls = new Tls();
+        private SocketOptions socket = new SocketOptions();
+        private boolean writeCoalescing = true;   // 이미 수신된 요청이 더 있으면 응답을 모아 한 번에 쓰기
+        private int ioBufferSize = 16384;         // 연결당 입출력 버퍼 (coalescing 최대 크기)
+        private String unixSocketPath;            // 지정 시 Unix 도메인 소켓도 함께 수신
     }
 
     @Data
@@ -30,5 +43,111 @@ public class TcpTestProperties {
         private boolean keepAlive = true;
         private int messageHeaderLength = 2;
         private String encoding = "UTF-8";
+        private Tls tls = new Tls();
+        private List<Target> targets = new ArrayList<>(); // 비어 있으면 target-host/target-port 단일 대상
+        private String routing = "least-outstanding";     // least-outstanding | latency-weighted
+        private int failureThreshold = 3;                 // 연속 실패 시 라우팅에서 제외
+        private long ejectMs = 5000;                      // 제외 유지 시간
+        private Hedge hedge = new Hedge();
+        private SocketOptions socket = new SocketOptions();
+        private int blockingThreads = 64;                 // TLS 대상 블로킹 교환 스레드 수 (평문/UDS 는 셀렉터 스레드 하나)
+        private int blockingQueueCapacity = 256;          // 블로킹 풀 대기열 크기 (초과 시 503)
+    }
+
+    @Data
+    public static class SocketOptions {
+        private boolean tcpNoDelay = true;        // Nagle 비활성 (지연 ACK 대기 방지)
+        private int sendBufferSize = 0;           // SO_SNDBUF, 0 이면 OS 기본값
+        private int receiveBufferSize = 0;        // SO_RCVBUF, 0 이면 OS 기본값
+        private int lingerSeconds = -1;           // SO_LINGER, 음수면 비활성
+    }
+
+    @Data
+    public static class Target {
+        private String host = "localhost";
+        private int port = 8583;
+        private String unixSocketPath;            // 지정 시 host/port 대신 Unix 도메인 소켓으로 연결
+    }
+
+    @Data
+    public static class Hedge {
+        private boolean enabled = false;          // 0800 망관리/잔액조회만 대상
+        private double percentile = 95.0;         // 최근 응답 지연 백분위수만큼 기다린 뒤 2차 대상으로 재전송
+        private long minDelayMs = 5;
+        private long maxDelayMs = 1000;
+    }
+
+    @Data
+    public static class Tls {
+        private boolean enabled = false;
+        private String keyStore;                  // file:/classpath: 경로
+        private String keyStorePassword;
+        private String keyStoreType = "PKCS12";
+        private String trustStore;
+        private String trustStorePassword;
+        private String trustStoreType = "PKCS12";
+        private List<String> protocols = new ArrayList<>(List.of("TLSv1.3", "TLSv1.2"));
+        private List<String> cipherSuites = new ArrayList<>(); // 비어 있으면 JDK 기본값
+        private boolean clientAuth = false;       // 서버 전용: 클라이언트 인증서 요구
+        private int sessionCacheSize = 10000;
+        private int sessionTimeoutSeconds = 86400;
+    }
+
+    @Data
+    public static class Simulator {
+        private long amountLimit = 100000000L;    // 초과 시 61 (1억원)
+        private long availableBalance = 10000000L; // 잔액조회 응답 필드 54
+    }
+
+    @Data
+    public static class Settlement {
+        private String journalFile;               // 지정 시 승인/취소 거래를 CSV 로 기록 (대사 리포트 입력)
+        private int journalQueueCapacity = 65_536; // 저널 기록 스레드 대기열 (가득 차면 워커가 기다림)
+        private int maxDiscrepancies = 100;       // 리포트에 나열할 불일치 건수 상한
+    }
+
+    @Data
+    public static class Ledger {
+        private String seedFile;                  // "pan,balance" 줄 단위 파일, 지정 시 잔액조회/구매/취소에 원장 사용
+        private boolean declineUnknown = false;   // 원장에 없는 PAN 을 "14"로 거절 (false 면 원장 없이 승인)
+        private int maxPendingDebits = 100_000;   // 취소 대조용 차감 기록 목표 건수 (슬롯 2배 고정 할당, 넘치면 덮어씀)
+    }
+
+    @Data
+    public static class Reload {
+        private String packagerLocation = "classpath:config/iso8583-test.xml";
+        private String simulatorLocation;         // simulator 설정을 덮어쓸 .properties 파일 (선택)
+        private boolean watch = false;            // file: 경로 변경 시 자동 재적재
+    }
+
+    @Data
+    public static class Scenario {
+        private List<MessageMix> mix = new ArrayList<>();
+        private String panFile;                   // 한 줄에 하나씩 (고정폭이면 인덱스 없이 접근)
+        private String terminalFile;
+        private String merchantFile;
+        private String defaultPan = "4111111111111111";
+        private String defaultTerminalId = "TEST001";
+        private String defaultMerchantId = "TEST_MERCHANT_001";
+        private long minAmount = 1000;
+        private long maxAmount = 500000;
+        private int approvedHistorySize = 65536;  // 취소 대상으로 보관할 승인 거래 수 (2의 거듭제곱으로 올림)
+        private int workers = 8;
+        private ThinkTime thinkTime = new ThinkTime();
+    }
+
+    @Data
+    public static class MessageMix {
+        private String mti = "0200";
+        private String processingCode = "000000";
+        private int weight = 1;
+    }
+
+    @Data
+    public static class ThinkTime {
+        private String distribution = "none";     // none, constant, uniform, exponential
+        private long meanMs = 0;                  // constant, exponential
+        private long minMs = 0;                   // uniform
+        private long maxMs = 0;                   // uniform
     }
 }
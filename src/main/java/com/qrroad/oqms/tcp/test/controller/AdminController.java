@@ -0,0 +1,55 @@
+package com.qrroad.oqms.tcp.test.controller;
+
+import com.qrroad.oqms.tcp.test.config.ConfigSnapshot;
+import com.qrroad.oqms.tcp.test.config.ReloadableConfig;
+import com.qrroad.oqms.tcp.test.config.TcpTestProperties;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.HashMap;
+import java.util.Map;
+
+@Slf4j
+@RestController
+@RequestMapping("/api/tcp-test/admin")
+@RequiredArgsConstructor
+public class AdminController {
+
+    private final ReloadableConfig reloadableConfig;
+    private final TcpTestProperties properties;
+
+    @GetMapping("/config")
+    public ResponseEntity<Map<String, Object>> getConfig() {
+        return ResponseEntity.ok(createConfigMap(reloadableConfig.current()));
+    }
+
+    @PostMapping("/reload")
+    public ResponseEntity<Map<String, Object>> reloadConfig() {
+        try {
+            ConfigSnapshot snapshot = reloadableConfig.reload("admin-endpoint");
+            Map<String, Object> response = createConfigMap(snapshot);
+            response.put("status", "reloaded");
+            return ResponseEntity.ok(response);
+
+        } catch (Exception e) {
+            log.error("Error reloading configuration", e);
+            Map<String, Object> response = createConfigMap(reloadableConfig.current());
+            response.put("status", "failed");
+            response.put("message", "Failed to reload configuration: " + e.getMessage());
+            return ResponseEntity.internalServerError().body(response);
+        }
+    }
+
+    private Map<String, Object> createConfigMap(ConfigSnapshot snapshot) {
+        Map<String, Object> config = new HashMap<>();
+        config.put("version", snapshot.version());
+        config.put("loadedAt", snapshot.loadedAt().toString());
+        config.put("packagerLocation", properties.getReload().getPackagerLocation());
+        config.put("simulatorLocation", properties.getReload().getSimulatorLocation());
+        config.put("lazyView", snapshot.layout().isSupported());
+        config.put("simulator", snapshot.simulator());
+        return config;
+    }
+}
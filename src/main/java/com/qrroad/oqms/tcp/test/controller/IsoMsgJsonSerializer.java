@@ -0,0 +1,74 @@
+package com.qrroad.oqms.tcp.test.controller;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import lombok.extern.slf4j.Slf4j;
+import org.jpos.iso.ISOException;
+import org.jpos.iso.ISOMsg;
+import org.springframework.boot.jackson.JsonComponent;
+
+import java.io.IOException;
+import java.util.BitSet;
+
+/**
+ * ISOMsg 응답을 중간 Map 없이 JsonGenerator 로 바로 기록한다.
+ * 필드는 1..128 전체를 조회하지 않고 비트맵에 설정된 필드만 순회한다.
+ */
+@Slf4j
+@JsonComponent
+public class IsoMsgJsonSerializer extends JsonSerializer<ISOMsg> {
+
+    @Override
+    public void serialize(ISOMsg msg, JsonGenerator gen, SerializerProvider serializers) throws IOException {
+        BitSet bitmap;
+        String mti;
+        try {
+            bitmap = getBitmap(msg);
+            mti = msg.getMTI();
+        } catch (ISOException e) {
+            log.warn("Error parsing response message", e);
+            gen.writeStartObject();
+            gen.writeBooleanField("success", false);
+            gen.writeStringField("message", "Error parsing response: " + e.getMessage());
+            gen.writeEndObject();
+            return;
+        }
+
+        gen.writeStartObject();
+        gen.writeBooleanField("success", true);
+        gen.writeStringField("mti", mti);
+        gen.writeStringField("responseCode", msg.getString(39));
+        gen.writeStringField("stan", msg.getString(11));
+        gen.writeStringField("rrn", msg.getString(37));
+        gen.writeStringField("authCode", msg.getString(38));
+        gen.writeStringField("transmissionDateTime", msg.getString(7));
+
+        // 추가 필드들 (비트맵 1번은 2차 비트맵 지시자)
+        gen.writeObjectFieldStart("allFields");
+        for (int i = bitmap.nextSetBit(2); i >= 0; i = bitmap.nextSetBit(i + 1)) {
+            String value = msg.getString(i);
+            if (value != null) {
+                gen.writeStringField(Integer.toString(i), value);
+            }
+        }
+        gen.writeEndObject();
+
+        gen.writeEndObject();
+    }
+
+    private BitSet getBitmap(ISOMsg msg) {
+        // 언팩된 메시지는 수신한 비트맵(-1)을 그대로 사용
+        if (msg.hasField(-1) && msg.getValue(-1) instanceof BitSet bitmap) {
+            return bitmap;
+        }
+        // 공유될 수 있는 메시지이므로 recalcBitMap() 으로 필드를 바꾸지 않고 직접 계산
+        BitSet bitmap = new BitSet(msg.getMaxField() + 1);
+        for (int i = 2; i <= msg.getMaxField(); i++) {
+            if (msg.hasField(i)) {
+                bitmap.set(i);
+            }
+        }
+        return bitmap;
+    }
+}
@@ -0,0 +1,65 @@
+package com.qrroad.oqms.tcp.test.controller;
+
+import com.qrroad.oqms.tcp.test.ledger.AccountLedger;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.OptionalLong;
+
+@Slf4j
+@RestController
+@RequestMapping("/api/tcp-test/ledger")
+@RequiredArgsConstructor
+public class LedgerController {
+
+    private final AccountLedger accountLedger;
+
+    @GetMapping
+    public ResponseEntity<Map<String, Object>> getStatus() {
+        return ResponseEntity.ok(accountLedger.getStatus());
+    }
+
+    @GetMapping("/accounts/{pan}")
+    public ResponseEntity<Map<String, Object>> getAccount(@PathVariable String pan) {
+        OptionalLong balance = accountLedger.getBalance(pan);
+        if (balance.isEmpty()) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                    .body(createErrorMap("Account not found: " + pan));
+        }
+
+        Map<String, Object> response = new HashMap<>();
+        response.put("pan", pan);
+        response.put("balance", balance.getAsLong());
+        return ResponseEntity.ok(response);
+    }
+
+    @PostMapping("/reload")
+    public ResponseEntity<Map<String, Object>> reload() {
+        try {
+            accountLedger.reload();
+            Map<String, Object> response = accountLedger.getStatus();
+            response.put("status", "reloaded");
+            return ResponseEntity.ok(response);
+
+        } catch (IllegalStateException e) {
+            return ResponseEntity.badRequest().body(createErrorMap(e.getMessage()));
+        } catch (Exception e) {
+            log.error("Error reloading account ledger", e);
+            return ResponseEntity.internalServerError()
+                    .body(createErrorMap("Failed to reload account ledger: " + e.getMessage()));
+        }
+    }
+
+    private Map<String, Object> createErrorMap(String message) {
+        Map<String, Object> error = new HashMap<>();
+        error.put("success", false);
+        error.put("message", message);
+        error.put("timestamp", System.currentTimeMillis());
+        return error;
+    }
+}
@@ -0,0 +1,71 @@
+package com.qrroad.oqms.tcp.test.controller;
+
+import com.qrroad.oqms.tcp.test.config.TcpTestProperties;
+import com.qrroad.oqms.tcp.test.scenario.ScenarioRunner;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.HashMap;
+import java.util.Map;
+
+@Slf4j
+@RestController
+@RequestMapping("/api/tcp-test/scenario")
+@RequiredArgsConstructor
+public class ScenarioController {
+
+    private final ScenarioRunner scenarioRunner;
+    private final TcpTestProperties properties;
+
+    @PostMapping("/start")
+    public ResponseEntity<Map<String, Object>> startScenario(
+            @RequestBody(required = false) ScenarioRequest request) {
+
+        Map<String, Object> response = new HashMap<>();
+        int workers = request != null && request.getWorkers() > 0
+                ? request.getWorkers() : properties.getScenario().getWorkers();
+        int durationSeconds = request != null ? request.getDurationSeconds() : 60;
+
+        try {
+            if (scenarioRunner.start(workers, durationSeconds)) {
+                response.put("status", "started");
+                response.put("workers", workers);
+                response.put("durationSeconds", durationSeconds);
+            } else {
+                response.put("status", "already_running");
+                response.put("message", "Scenario is already running");
+            }
+            return ResponseEntity.ok(response);
+
+        } catch (Exception e) {
+            log.error("Error starting scenario", e);
+            response.put("status", "failed");
+            response.put("message", "Failed to start scenario: " + e.getMessage());
+            return ResponseEntity.internalServerError().body(response);
+        }
+    }
+
+    @PostMapping("/stop")
+    public ResponseEntity<Map<String, Object>> stopScenario() {
+        scenarioRunner.stop();
+        return ResponseEntity.ok(scenarioRunner.getStatus());
+    }
+
+    @GetMapping("/status")
+    public ResponseEntity<Map<String, Object>> getScenarioStatus() {
+        return ResponseEntity.ok(scenarioRunner.getStatus());
+    }
+
+    public static class ScenarioRequest {
+        private int workers;
+        private int durationSeconds = 60;
+
+        // Getters and setters
+        public int getWorkers() { return workers; }
+        public void setWorkers(int workers) { this.workers = workers; }
+        public int getDurationSeconds() { return durationSeconds; }
+        public void setDurationSeconds(int durationSeconds) { this.durationSeconds = durationSeconds; }
+    }
+}
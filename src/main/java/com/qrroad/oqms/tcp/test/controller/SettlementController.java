@@ -0,0 +1,107 @@
+package com.qrroad.oqms.tcp.test.controller;
+
+import com.qrroad.oqms.tcp.test.settlement.ReconciliationReport;
+import com.qrroad.oqms.tcp.test.settlement.SettlementTotals;
+import com.qrroad.oqms.tcp.test.settlement.Totals;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+@Slf4j
+@RestController
+@RequestMapping("/api/tcp-test/settlement")
+@RequiredArgsConstructor
+public class SettlementController {
+
+    private final SettlementTotals settlementTotals;
+    private final ReconciliationReport reconciliationReport;
+
+    @GetMapping("/totals")
+    public ResponseEntity<Map<String, Object>> getTotals() {
+        Path journalFile = settlementTotals.getJournalFile();
+
+        Map<String, Object> response = new HashMap<>();
+        response.put("since", settlementTotals.getSince().toString());
+        response.put("journalFile", journalFile != null ? journalFile.toString() : null);
+        response.put("total", settlementTotals.getTotal().toMap());
+        response.put("unmatchedReversals", settlementTotals.getUnmatchedReversals());
+        response.put("terminalCount", settlementTotals.getTerminals().size());
+        response.put("merchantCount", settlementTotals.getMerchants().size());
+
+        return ResponseEntity.ok(response);
+    }
+
+    @GetMapping("/totals/terminals")
+    public ResponseEntity<Map<String, Object>> getTerminalTotals() {
+        return ResponseEntity.ok(toMap(settlementTotals.getTerminals()));
+    }
+
+    @GetMapping("/totals/merchants")
+    public ResponseEntity<Map<String, Object>> getMerchantTotals() {
+        return ResponseEntity.ok(toMap(settlementTotals.getMerchants()));
+    }
+
+    @GetMapping("/totals/terminals/{terminalId}")
+    public ResponseEntity<Map<String, Object>> getTerminalTotal(@PathVariable String terminalId) {
+        return ResponseEntity.ok(settlementTotals.getTerminal(terminalId).toMap());
+    }
+
+    @GetMapping("/totals/merchants/{merchantId}")
+    public ResponseEntity<Map<String, Object>> getMerchantTotal(@PathVariable String merchantId) {
+        return ResponseEntity.ok(settlementTotals.getMerchant(merchantId).toMap());
+    }
+
+    @PostMapping("/reset")
+    public ResponseEntity<Map<String, Object>> resetTotals() {
+        settlementTotals.reset();
+
+        Map<String, Object> response = new HashMap<>();
+        response.put("status", "reset");
+        response.put("since", settlementTotals.getSince().toString());
+        return ResponseEntity.ok(response);
+    }
+
+    @PostMapping("/report")
+    public ResponseEntity<Map<String, Object>> buildReport(
+            @RequestBody(required = false) ReportRequest request) {
+
+        try {
+            return ResponseEntity.ok(reconciliationReport.build(request != null ? request.getFile() : null));
+
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(createErrorMap(e.getMessage()));
+        } catch (Exception e) {
+            log.error("Error building reconciliation report", e);
+            return ResponseEntity.internalServerError()
+                    .body(createErrorMap("Failed to build reconciliation report: " + e.getMessage()));
+        }
+    }
+
+    private Map<String, Object> toMap(Map<String, Totals> totals) {
+        Map<String, Object> result = new LinkedHashMap<>();
+        totals.forEach((id, value) -> result.put(id, value.toMap()));
+        return result;
+    }
+
+    private Map<String, Object> createErrorMap(String message) {
+        Map<String, Object> error = new HashMap<>();
+        error.put("success", false);
+        error.put("message", message);
+        error.put("timestamp", System.currentTimeMillis());
+        return error;
+    }
+
+    public static class ReportRequest {
+        private String file;
+
+        // Getters and setters
+        public String getFile() { return file; }
+        public void setFile(String file) { this.file = file; }
+    }
+}
@@ -1,15 +1,30 @@
 package com.qrroad.oqms.tcp.test.controller;
 
+import com.qrroad.oqms.tcp.test.client.ClientTarget;
+import com.qrroad.oqms.tcp.test.client.ClientTargetPool;
 import com.qrroad.oqms.tcp.test.client.TcpTestClient;
 import com.qrroad.oqms.tcp.test.server.TcpTestServer;
+import com.qrroad.oqms.tcp.test.transport.TransportStats;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.jpos.iso.ISOMsg;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.async.AsyncRequestTimeoutException;
 
+import java.io.IOException;
+import java.net.SocketTimeoutException;
+import java.nio.channels.UnresolvedAddressException;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
 
 @Slf4j
 @RestController
@@ -19,16 +34,24 @@ public class TcpTestController {
 
     private final TcpTestClient tcpTestClient;
     private final TcpTestServer tcpTestServer;
+    private final ClientTargetPool clientTargetPool;
+    private final TransportStats transportStats;
 
     @GetMapping("/server/status")
     public ResponseEntity<Map<String, Object>> getServerStatus() {
         Map<String, Object> status = new HashMap<>();
         status.put("running", tcpTestServer.isRunning());
+        status.put("tls", tcpTestServer.isTlsEnabled());
         status.put("timestamp", System.currentTimeMillis());
 
         return ResponseEntity.ok(status);
     }
 
+    @GetMapping("/transport/stats")
+    public ResponseEntity<Map<String, Object>> getTransportStats() {
+        return ResponseEntity.ok(transportStats.toMap());
+    }
+
     @PostMapping("/server/start")
     public ResponseEntity<Map<String, String>> startServer() {
         Map<String, String> response = new HashMap<>();
@@ -55,105 +78,141 @@ public class TcpTestController {
         return ResponseEntity.ok(response);
     }
 
-    @PostMapping("/client/payment")
-    public ResponseEntity<Map<String, Object>> sendPaymentRequest(
-            @RequestBody PaymentRequest request) {
+    @GetMapping("/client/targets")
+    public ResponseEntity<Map<String, Object>> getClientTargets() {
+        List<Map<String, Object>> targets = new ArrayList<>();
+        for (ClientTarget target : clientTargetPool.getTargets()) {
+            Map<String, Object> status = new HashMap<>();
+            status.put("target", target.toString());
+            status.put("available", target.isAvailable());
+            status.put("outstanding", target.getOutstanding());
+            status.put("latencyEwmaMs", target.getLatencyEwmaNanos() / 1_000_000.0);
+            status.put("consecutiveFailures", target.getConsecutiveFailures());
+            status.put("successes", target.getSuccesses());
+            status.put("failures", target.getFailures());
+            targets.add(status);
+        }
 
-        try {
-            ISOMsg responseMsg = tcpTestClient.sendPaymentRequest(
-                    request.getPan(), request.getAmount(), request.getTerminalId());
+        Map<String, Object> response = new HashMap<>();
+        response.put("routing", clientTargetPool.getRouting());
+        response.put("hedging", clientTargetPool.isHedgingEnabled());
+        response.put("hedgeDelayMs", clientTargetPool.getHedgeDelayMs());
+        response.put("targets", targets);
 
-            return ResponseEntity.ok(createResponseMap(responseMsg));
+        return ResponseEntity.ok(response);
+    }
 
-        } catch (Exception e) {
-            log.error("Error sending payment request", e);
-            return ResponseEntity.internalServerError()
-                    .body(createErrorMap("Failed to send payment request: " + e.getMessage()));
-        }
+    @PostMapping("/client/payment")
+    public CompletableFuture<ResponseEntity<Object>> sendPaymentRequest(
+            @RequestBody PaymentRequest request) {
+
+        return respond("payment request", () -> tcpTestClient.sendPaymentRequestAsync(
+                request.getPan(), request.getAmount(), request.getTerminalId()));
     }
 
     @PostMapping("/client/balance")
-    public ResponseEntity<Map<String, Object>> sendBalanceInquiry(
+    public CompletableFuture<ResponseEntity<Object>> sendBalanceInquiry(
             @RequestBody BalanceRequest request) {
 
-        try {
-            ISOMsg responseMsg = tcpTestClient.sendBalanceInquiry(
-                    request.getPan(), request.getTerminalId());
-
-            return ResponseEntity.ok(createResponseMap(responseMsg));
-
-        } catch (Exception e) {
-            log.error("Error sending balance inquiry", e);
-            return ResponseEntity.internalServerError()
-                    .body(createErrorMap("Failed to send balance inquiry: " + e.getMessage()));
-        }
+        return respond("balance inquiry", () -> tcpTestClient.sendBalanceInquiryAsync(
+                request.getPan(), request.getTerminalId()));
     }
 
     @PostMapping("/client/reversal")
-    public ResponseEntity<Map<String, Object>> sendReversalRequest(
+    public CompletableFuture<ResponseEntity<Object>> sendReversalRequest(
             @RequestBody ReversalRequest request) {
 
-        try {
-            ISOMsg responseMsg = tcpTestClient.sendReversalRequest(
-                    request.getPan(), request.getAmount(),
-                    request.getOriginalStan(), request.getOriginalRrn());
-
-            return ResponseEntity.ok(createResponseMap(responseMsg));
-
-        } catch (Exception e) {
-            log.error("Error sending reversal request", e);
-            return ResponseEntity.internalServerError()
-                    .body(createErrorMap("Failed to send reversal request: " + e.getMessage()));
-        }
+        return respond("reversal request", () -> tcpTestClient.sendReversalRequestAsync(
+                request.getPan(), request.getAmount(),
+                request.getOriginalStan(), request.getOriginalRrn()));
     }
 
     @PostMapping("/client/network-test")
-    public ResponseEntity<Map<String, Object>> sendNetworkTest() {
-        try {
-            ISOMsg responseMsg = tcpTestClient.sendNetworkTest();
+    public CompletableFuture<ResponseEntity<Object>> sendNetworkTest() {
+        return respond("network test", tcpTestClient::sendNetworkTestAsync);
+    }
 
-            return ResponseEntity.ok(createResponseMap(responseMsg));
+    @PostMapping("/client/send")
+    public CompletableFuture<ResponseEntity<Object>> sendCustomMessage(
+            @RequestBody CustomMessageRequest request) {
 
-        } catch (Exception e) {
-            log.error("Error sending network test", e);
-            return ResponseEntity.internalServerError()
-                    .body(createErrorMap("Failed to send network test: " + e.getMessage()));
+        try {
+            CompletableFuture<ISOMsg> response = tcpTestClient.sendCustomMessageAsync(
+                    request.getMti(), request.getFields());
+            return respond("custom message", () -> response);
+
+        } catch (IllegalArgumentException e) {
+            log.warn("Rejected custom message: {}", e.getMessage());
+            return CompletableFuture.completedFuture(ResponseEntity.badRequest()
+                    .body(createErrorMap("Invalid message: " + e.getMessage())));
         }
     }
 
-    private Map<String, Object> createResponseMap(ISOMsg msg) {
-        Map<String, Object> response = new HashMap<>();
+    /**
+     * MVC 비동기 제한 시간(spring.mvc.async.request-timeout) 초과 시 503 대신 504 로 응답한다.
+     */
+    @ExceptionHandler(AsyncRequestTimeoutException.class)
+    public ResponseEntity<Map<String, Object>> handleAsyncTimeout(AsyncRequestTimeoutException e) {
+        return ResponseEntity.status(HttpStatus.GATEWAY_TIMEOUT)
+                .body(createErrorMap("Request timed out"));
+    }
 
-        if (msg == null) {
-            response.put("success", false);
-            response.put("message", "No response received");
-            return response;
+    /**
+     * 비동기 TCP 호출 결과를 HTTP 응답으로 변환한다. 요청 스레드는 호출 직후 반환되고
+     * 응답은 클라이언트 콜백 스레드에서 완성된다.
+     * 읽기/연결 제한 시간 초과는 504, 연결 실패는 502, TLS 블로킹 풀 포화는 503, 그 외 오류는 500 으로 응답한다.
+     */
+    private CompletableFuture<ResponseEntity<Object>> respond(String action,
+                                                             Supplier<CompletableFuture<ISOMsg>> call) {
+        CompletableFuture<ISOMsg> response;
+        try {
+            response = call.get();
+        } catch (Exception e) {
+            response = CompletableFuture.failedFuture(e);
         }
 
-        try {
-            response.put("success", true);
-            response.put("mti", msg.getMTI());
-            response.put("responseCode", msg.getString(39));
-            response.put("stan", msg.getString(11));
-            response.put("rrn", msg.getString(37));
-            response.put("authCode", msg.getString(38));
-            response.put("transmissionDateTime", msg.getString(7));
-
-            // 추가 필드들
-            Map<String, String> fields = new HashMap<>();
-            for (int i = 1; i <= 128; i++) {
-                if (msg.hasField(i)) {
-                    fields.put(String.valueOf(i), msg.getString(i));
-                }
+        return response.handle((responseMsg, error) -> {
+            if (error == null) {
+                return ResponseEntity.ok(createResponseBody(responseMsg));
             }
-            response.put("allFields", fields);
 
-        } catch (Exception e) {
-            log.warn("Error parsing response message", e);
-            response.put("success", false);
-            response.put("message", "Error parsing response: " + e.getMessage());
+            Throwable cause = error instanceof CompletionException && error.getCause() != null
+                    ? error.getCause() : error;
+            HttpStatus status = statusFor(cause);
+            if (status == HttpStatus.INTERNAL_SERVER_ERROR) {
+                log.error("Error sending {}", action, cause);
+            } else {
+                log.warn("Failed to send {}: {}", action, cause.toString());
+            }
+            return ResponseEntity.status(status)
+                    .body(createErrorMap("Failed to send " + action + ": " + cause.getMessage()));
+        });
+    }
+
+    private HttpStatus statusFor(Throwable error) {
+        if (error instanceof SocketTimeoutException || error instanceof TimeoutException) {
+            return HttpStatus.GATEWAY_TIMEOUT;
+        }
+        if (error instanceof IOException || error instanceof UnresolvedAddressException) {
+            return HttpStatus.BAD_GATEWAY; // 연결 거부, 주소 해석 실패, 응답 전 연결 끊김
+        }
+        if (error instanceof IllegalArgumentException) {
+            return HttpStatus.BAD_REQUEST;
+        }
+        if (error instanceof RejectedExecutionException) {
+            return HttpStatus.SERVICE_UNAVAILABLE; // blocking-queue-capacity 초과
+        }
+        return HttpStatus.INTERNAL_SERVER_ERROR;
+    }
+
+    private Object createResponseBody(ISOMsg msg) {
+        if (msg != null) {
+            return msg; // IsoMsgJsonSerializer 가 비트맵 기준으로 직접 직렬화
         }
 
+        Map<String, Object> response = new HashMap<>();
+        response.put("success", false);
+        response.put("message", "No response received");
         return response;
     }
 
@@ -207,4 +266,15 @@ public class TcpTestController {
         public String getOriginalRrn() { return originalRrn; }
         public void setOriginalRrn(String originalRrn) { this.originalRrn = originalRrn; }
     }
+
+    public static class CustomMessageRequest {
+        private String mti;
+        private Map<String, String> fields;
+
+        // Getters and setters
+        public String getMti() { return mti; }
+        public void setMti(String mti) { this.mti = mti; }
+        public Map<String, String> getFields() { return fields; }
+        public void setFields(Map<String, String> fields) { this.fields = fields; }
+    }
 }
\ No newline at end of file
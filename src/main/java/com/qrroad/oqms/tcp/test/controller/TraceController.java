@@ -0,0 +1,90 @@
+package com.qrroad.oqms.tcp.test.controller;
+
+import com.qrroad.oqms.tcp.test.trace.PhaseRecordingService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+@Slf4j
+@RestController
+@RequestMapping("/api/tcp-test/trace")
+@RequiredArgsConstructor
+public class TraceController {
+
+    private final PhaseRecordingService phaseRecordingService;
+
+    @PostMapping("/start")
+    public ResponseEntity<Map<String, Object>> startRecording(
+            @RequestBody(required = false) TraceRequest request) {
+
+        Duration maxDuration = request != null && request.getMaxDurationSeconds() > 0
+                ? Duration.ofSeconds(request.getMaxDurationSeconds()) : null;
+
+        try {
+            return ResponseEntity.ok(phaseRecordingService.start(maxDuration));
+
+        } catch (IllegalStateException e) {
+            return ResponseEntity.badRequest().body(createErrorMap(e.getMessage()));
+        } catch (Exception e) {
+            log.error("Error starting phase recording", e);
+            return ResponseEntity.internalServerError()
+                    .body(createErrorMap("Failed to start phase recording: " + e.getMessage()));
+        }
+    }
+
+    @PostMapping("/stop")
+    public ResponseEntity<Map<String, Object>> stopRecording() {
+        try {
+            return ResponseEntity.ok(phaseRecordingService.stop());
+
+        } catch (IllegalStateException e) {
+            return ResponseEntity.badRequest().body(createErrorMap(e.getMessage()));
+        } catch (Exception e) {
+            log.error("Error stopping phase recording", e);
+            return ResponseEntity.internalServerError()
+                    .body(createErrorMap("Failed to stop phase recording: " + e.getMessage()));
+        }
+    }
+
+    @GetMapping("/summary")
+    public ResponseEntity<Map<String, Object>> getSummary() {
+        try {
+            Map<String, Object> summary = phaseRecordingService.getSummary();
+            if (summary == null) {
+                return ResponseEntity.ok(phaseRecordingService.getStatus());
+            }
+            return ResponseEntity.ok(summary);
+
+        } catch (Exception e) {
+            log.error("Error summarizing phase recording", e);
+            return ResponseEntity.internalServerError()
+                    .body(createErrorMap("Failed to summarize phase recording: " + e.getMessage()));
+        }
+    }
+
+    @GetMapping("/status")
+    public ResponseEntity<Map<String, Object>> getStatus() {
+        return ResponseEntity.ok(phaseRecordingService.getStatus());
+    }
+
+    private Map<String, Object> createErrorMap(String message) {
+        Map<String, Object> error = new HashMap<>();
+        error.put("success", false);
+        error.put("message", message);
+        error.put("timestamp", System.currentTimeMillis());
+        return error;
+    }
+
+    public static class TraceRequest {
+        private long maxDurationSeconds;
+
+        // Getters and setters
+        public long getMaxDurationSeconds() { return maxDurationSeconds; }
+        public void setMaxDurationSeconds(long maxDurationSeconds) { this.maxDurationSeconds = maxDurationSeconds; }
+    }
+}
@@ -1,28 +1,46 @@
 package com.qrroad.oqms.tcp.test.handler;
 
+import com.qrroad.oqms.tcp.test.config.SimulatorSettings;
+import com.qrroad.oqms.tcp.test.iso.IsoMessageView;
+import com.qrroad.oqms.tcp.test.ledger.AccountLedger;
+import com.qrroad.oqms.tcp.test.settlement.SettlementTotals;
+import com.qrroad.oqms.tcp.test.settlement.Totals;
+import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.jpos.iso.ISOException;
 import org.jpos.iso.ISOMsg;
 import org.springframework.stereotype.Component;
 
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.OptionalLong;
 
 @Slf4j
 @Component
+@RequiredArgsConstructor
 public class MessageHandler {
 
     private static final String SUCCESS_CODE = "00";
+    private static final String INVALID_CARD = "14";
     private static final String INVALID_MESSAGE = "30";
+    private static final String INSUFFICIENT_FUNDS = "51";
     private static final String SYSTEM_ERROR = "96";
+    private static final String IN_BALANCE = "1";
+    private static final String OUT_OF_BALANCE = "2";
 
-    public ISOMsg processMessage(ISOMsg requestMsg) {
+    private final SettlementTotals settlementTotals;
+    private final AccountLedger accountLedger;
+
+    public ISOMsg processMessage(IsoMessageView requestMsg, SimulatorSettings settings) {
         try {
             String mti = requestMsg.getMTI();
             log.info("Processing message with MTI: {}", mti);
 
             return switch (mti) {
-                case "0200" -> processPaymentRequest(requestMsg);
+                case "0200" -> processPaymentRequest(requestMsg, settings);
                 case "0400" -> processReversalRequest(requestMsg);
+                case "0500" -> processReconciliation(requestMsg, "0510");
+                case "0520" -> processReconciliation(requestMsg, "0530");
                 case "0800" -> processNetworkMessage(requestMsg);
                 default -> createErrorResponse(requestMsg, INVALID_MESSAGE, "Invalid message type");
             };
@@ -33,7 +51,7 @@ public class MessageHandler {
         }
     }
 
-    private ISOMsg processPaymentRequest(ISOMsg requestMsg) {
+    private ISOMsg processPaymentRequest(IsoMessageView requestMsg, SimulatorSettings settings) {
         try {
             // 결제 요청 처리 시뮬레이션
             ISOMsg responseMsg = createBaseResponse(requestMsg, "0210");
@@ -51,14 +69,28 @@ public class MessageHandler {
             String amount = requestMsg.getString(4);
             String processingCode = requestMsg.getString(3);
 
-            if (amount != null && Long.parseLong(amount) > 100000000L) { // 1억원 초과
+            if (amount != null && Long.parseLong(amount) > settings.amountLimit()) { // 한도 초과
                 responseMsg.set(39, "61"); // Amount limit exceeded
             } else if ("380000".equals(processingCode)) { // 잔액조회
-                responseMsg.set(39, SUCCESS_CODE);
-                responseMsg.set(54, "000000010000000"); // Available balance
+                OptionalLong balance = accountLedger.getBalance(requestMsg.getString(2));
+                if (balance.isEmpty() && accountLedger.isDeclineUnknown()) {
+                    responseMsg.set(39, INVALID_CARD);
+                } else {
+                    responseMsg.set(39, SUCCESS_CODE);
+                    responseMsg.set(54, String.format("%015d", balance.orElse(settings.availableBalance()))); // Available balance
+                }
             } else {
-                responseMsg.set(39, SUCCESS_CODE); // Approved
-                responseMsg.set(38, generateAuthCode()); // Auth code
+                responseMsg.set(39, debit(requestMsg, amount));
+                if (SUCCESS_CODE.equals(responseMsg.getString(39))) {
+                    responseMsg.set(38, generateAuthCode()); // Auth code
+                }
+            }
+
+            // 승인된 금융거래만 정산 합계에 반영 (잔액조회 제외)
+            if (SUCCESS_CODE.equals(responseMsg.getString(39)) && !"380000".equals(processingCode)) {
+                settlementTotals.recordApproval(requestMsg.getString(41), requestMsg.getString(42),
+                        amount != null ? Long.parseLong(amount) : 0L,
+                        requestMsg.getString(11), requestMsg.getString(37));
             }
 
             log.info("Payment processed: Amount={}, Response={}",
@@ -72,7 +104,7 @@ public class MessageHandler {
         }
     }
 
-    private ISOMsg processReversalRequest(ISOMsg requestMsg) {
+    private ISOMsg processReversalRequest(IsoMessageView requestMsg) {
         try {
             // 취소 요청 처리 시뮬레이션
             ISOMsg responseMsg = createBaseResponse(requestMsg, "0410");
@@ -91,6 +123,16 @@ public class MessageHandler {
 
             responseMsg.set(39, SUCCESS_CODE); // Reversal approved
 
+            String amount = requestMsg.getString(4);
+            // 승인된 원거래와 짝이 맞을 때만 한 번 환원하고 정산에 반영 (짝이 없어도 응답은 "00")
+            if (accountLedger.reverse(requestMsg.getString(2), originalStan(requestMsg), requestMsg.getString(37))) {
+                settlementTotals.recordReversal(requestMsg.getString(41), requestMsg.getString(42),
+                        amount != null ? Long.parseLong(amount) : 0L,
+                        requestMsg.getString(11), requestMsg.getString(37));
+            } else {
+                settlementTotals.recordUnmatchedReversal();
+            }
+
             log.info("Reversal processed successfully");
             return responseMsg;
 
@@ -100,7 +142,93 @@ public class MessageHandler {
         }
     }
 
-    private ISOMsg processNetworkMessage(ISOMsg requestMsg) {
+    /**
+     * 원장에 계좌가 있으면 잔액에서 차감하고, 잔액이 부족하면 "51"로 거절한다.
+     * 원장에 없는 PAN 은 decline-unknown 설정에 따라 "14"로 거절하거나 원장 없이 승인하고,
+     * 원장 없이 승인한 구매도 이후 취소와 짝을 맞출 수 있게 기록한다.
+     */
+    private String debit(IsoMessageView requestMsg, String amount) throws ISOException {
+        String pan = requestMsg.getString(2);
+        String stan = requestMsg.getString(11);
+        String rrn = requestMsg.getString(37);
+        AccountLedger.DebitResult result = accountLedger.debit(pan,
+                amount != null ? Long.parseLong(amount) : 0L, stan, rrn);
+        return switch (result) {
+            case APPROVED -> SUCCESS_CODE;
+            case INSUFFICIENT_FUNDS -> INSUFFICIENT_FUNDS;
+            case UNKNOWN_ACCOUNT -> {
+                if (accountLedger.isDeclineUnknown()) {
+                    yield INVALID_CARD;
+                }
+                accountLedger.recordApproval(pan, stan, rrn);
+                yield SUCCESS_CODE;
+            }
+        };
+    }
+
+    /**
+     * 필드 90(원거래 정보: MTI(4) + STAN(6) + 전송일시(10) + 매입/전달기관)의 원거래 STAN.
+     */
+    private String originalStan(IsoMessageView requestMsg) throws ISOException {
+        String originalData = requestMsg.getString(90);
+        return originalData != null && originalData.length() >= 10 ? originalData.substring(4, 10) : null;
+    }
+
+    /**
+     * 0500/0520 대사 요청: 요청의 차변 건수/금액(76, 77, 88, 89)을 서버 누적 합계와 비교해
+     * 필드 66(1=일치, 2=불일치)과 서버 합계를 응답한다.
+     * 필드 41이 있으면 단말기, 42가 있으면 가맹점, 둘 다 없으면 전체 합계와 비교한다.
+     */
+    private ISOMsg processReconciliation(IsoMessageView requestMsg, String responseMti) {
+        try {
+            ISOMsg responseMsg = createBaseResponse(requestMsg, responseMti);
+
+            copyFieldIfPresent(requestMsg, responseMsg, 11); // STAN
+            copyFieldIfPresent(requestMsg, responseMsg, 15); // Settlement date
+            copyFieldIfPresent(requestMsg, responseMsg, 41); // Terminal ID
+            copyFieldIfPresent(requestMsg, responseMsg, 42); // Merchant ID
+            copyFieldIfPresent(requestMsg, responseMsg, 50); // Settlement currency
+
+            Totals ours;
+            if (requestMsg.hasField(41)) {
+                ours = settlementTotals.getTerminal(requestMsg.getString(41));
+            } else if (requestMsg.hasField(42)) {
+                ours = settlementTotals.getMerchant(requestMsg.getString(42));
+            } else {
+                ours = settlementTotals.getTotal();
+            }
+
+            Totals theirs = new Totals(
+                    parseTotal(requestMsg, 76),  // Debits, number
+                    parseTotal(requestMsg, 88),  // Debits, amount
+                    parseTotal(requestMsg, 77),  // Debits, reversal number
+                    parseTotal(requestMsg, 89)); // Debits, reversal amount
+            boolean inBalance = ours.equals(theirs);
+
+            responseMsg.set(39, SUCCESS_CODE);
+            responseMsg.set(66, inBalance ? IN_BALANCE : OUT_OF_BALANCE); // Settlement code
+            responseMsg.set(76, String.format("%010d", ours.approvalCount()));
+            responseMsg.set(77, String.format("%010d", ours.reversalCount()));
+            responseMsg.set(88, String.format("%016d", ours.approvalAmount()));
+            responseMsg.set(89, String.format("%016d", ours.reversalAmount()));
+            long net = ours.netAmount();
+            responseMsg.set(97, (net >= 0 ? "D" : "C") + String.format("%016d", Math.abs(net))); // Net settlement
+
+            log.info("Reconciliation processed: Ours={}, Theirs={}, InBalance={}", ours, theirs, inBalance);
+            return responseMsg;
+
+        } catch (Exception e) {
+            log.error("Error processing reconciliation request", e);
+            return createErrorResponse(requestMsg, SYSTEM_ERROR, "Reconciliation error");
+        }
+    }
+
+    private long parseTotal(IsoMessageView requestMsg, int fieldNumber) throws ISOException {
+        String value = requestMsg.getString(fieldNumber);
+        return value != null && !value.isBlank() ? Long.parseLong(value.trim()) : 0L;
+    }
+
+    private ISOMsg processNetworkMessage(IsoMessageView requestMsg) {
         try {
             // 네트워크 관리 메시지 처리
             ISOMsg responseMsg = createBaseResponse(requestMsg, "0810");
@@ -119,7 +247,7 @@ public class MessageHandler {
         }
     }
 
-    private ISOMsg createBaseResponse(ISOMsg requestMsg, String responseMti) {
+    private ISOMsg createBaseResponse(IsoMessageView requestMsg, String responseMti) {
         try {
             ISOMsg responseMsg = new ISOMsg();
             responseMsg.setPackager(requestMsg.getPackager());
@@ -141,11 +269,13 @@ public class MessageHandler {
         }
     }
 
-    private ISOMsg createErrorResponse(ISOMsg requestMsg, String responseCode, String message) {
+    private ISOMsg createErrorResponse(IsoMessageView requestMsg, String responseCode, String message) {
         try {
             String responseMti = switch (requestMsg.getMTI()) {
                 case "0200" -> "0210";
                 case "0400" -> "0410";
+                case "0500" -> "0510";
+                case "0520" -> "0530";
                 case "0800" -> "0810";
                 default -> "0210";
             };
@@ -166,11 +296,10 @@ public class MessageHandler {
         }
     }
 
-    private void copyFieldIfPresent(ISOMsg source, ISOMsg target, int fieldNumber) {
+    private void copyFieldIfPresent(IsoMessageView source, ISOMsg target, int fieldNumber) {
         try {
-            if (source.hasField(fieldNumber)) {
-                target.set(fieldNumber, source.getString(fieldNumber));
-            }
+            // 원본 바이트를 그대로 에코 (디코딩/재인코딩 없음)
+            source.copyField(fieldNumber, target);
         } catch (Exception e) {
             log.warn("Failed to copy field {}", fieldNumber, e);
         }
@@ -0,0 +1,186 @@
+package com.qrroad.oqms.tcp.test.iso;
+
+import lombok.extern.slf4j.Slf4j;
+import org.jpos.iso.IFA_BITMAP;
+import org.jpos.iso.IFA_LLCHAR;
+import org.jpos.iso.IFA_LLLCHAR;
+import org.jpos.iso.IFA_LLLNUM;
+import org.jpos.iso.IFA_LLNUM;
+import org.jpos.iso.IFA_NUMERIC;
+import org.jpos.iso.IFB_BINARY;
+import org.jpos.iso.IF_CHAR;
+import org.jpos.iso.ISOBasePackager;
+import org.jpos.iso.ISOException;
+import org.jpos.iso.ISOFieldPackager;
+import org.jpos.iso.ISOPackager;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * 패키저 정의에서 필드별 인코딩 형태(고정/LL/LLL, ASCII/바이너리)를 한 번만 추출해 둔 테이블.
+ * {@link IsoMessageView}는 이 테이블로 프레임 안의 필드 오프셋을 계산한다.
+ * 지원하지 않는 필드 패키저가 하나라도 있으면 {@link #isSupported()}가 false 이며,
+ * 이 경우 뷰는 항상 jPOS 언팩으로 대체된다.
+ */
+@Slf4j
+public final class IsoFieldLayout {
+
+    public static final int MAX_FIELD = 128;
+
+    private static final int MTI_LENGTH = 4;
+
+    private final ISOPackager packager;
+    private final ISOFieldPackager[] fieldPackagers = new ISOFieldPackager[MAX_FIELD + 1];
+    private final int[] prefixDigits = new int[MAX_FIELD + 1];   // 0 = 고정 길이, 2 = LL, 3 = LLL
+    private final int[] maxLength = new int[MAX_FIELD + 1];
+    private final boolean[] binary = new boolean[MAX_FIELD + 1];
+    private final boolean[] spacePadded = new boolean[MAX_FIELD + 1]; // IF_CHAR: 뒤쪽 공백 패딩
+    private final boolean secondaryBitmap;
+    private final boolean supported;
+
+    private IsoFieldLayout(ISOPackager packager) {
+        this.packager = packager;
+
+        if (!(packager instanceof ISOBasePackager basePackager)) {
+            this.secondaryBitmap = false;
+            this.supported = false;
+            return;
+        }
+
+        fieldPackagers[0] = basePackager.getFieldPackager(0);
+        fieldPackagers[1] = basePackager.getFieldPackager(1);
+
+        boolean allSupported = isField(fieldPackagers[0], IFA_NUMERIC.class, MTI_LENGTH)
+                && fieldPackagers[1] instanceof IFA_BITMAP;
+
+        for (int i = 2; i <= MAX_FIELD; i++) {
+            ISOFieldPackager fp = basePackager.getFieldPackager(i);
+            fieldPackagers[i] = fp;
+            if (fp == null) {
+                continue;
+            }
+            maxLength[i] = fp.getLength();
+
+            Class<?> type = fp.getClass();
+            if (type == IFA_NUMERIC.class) {
+                prefixDigits[i] = 0;
+            } else if (type == IF_CHAR.class) {
+                prefixDigits[i] = 0;
+                spacePadded[i] = true;
+            } else if (type == IFA_LLNUM.class || type == IFA_LLCHAR.class) {
+                prefixDigits[i] = 2;
+            } else if (type == IFA_LLLNUM.class || type == IFA_LLLCHAR.class) {
+                prefixDigits[i] = 3;
+            } else if (type == IFB_BINARY.class) {
+                binary[i] = true;
+            } else {
+                log.warn("Field {} uses unsupported packager {}, lazy view disabled", i, type.getName());
+                allSupported = false;
+            }
+        }
+
+        this.secondaryBitmap = fieldPackagers[1] != null && fieldPackagers[1].getLength() > 8;
+        this.supported = allSupported;
+    }
+
+    public static IsoFieldLayout of(ISOPackager packager) {
+        return new IsoFieldLayout(packager);
+    }
+
+    public ISOPackager getPackager() {
+        return packager;
+    }
+
+    public boolean isSupported() {
+        return supported;
+    }
+
+    int getMtiLength() {
+        return MTI_LENGTH;
+    }
+
+    boolean hasSecondaryBitmap() {
+        return secondaryBitmap;
+    }
+
+    ISOFieldPackager getMtiPackager() {
+        return fieldPackagers[0];
+    }
+
+    ISOFieldPackager getBitmapPackager() {
+        return fieldPackagers[1];
+    }
+
+    ISOFieldPackager getFieldPackager(int field) {
+        return field >= 0 && field <= MAX_FIELD ? fieldPackagers[field] : null;
+    }
+
+    boolean isBinary(int field) {
+        return binary[field];
+    }
+
+    boolean isSpacePadded(int field) {
+        return spacePadded[field];
+    }
+
+    int getPrefixLength(int field) {
+        return prefixDigits[field];
+    }
+
+    /**
+     * 길이 접두부를 제외한 값의 길이(바이트).
+     */
+    int getValueLength(int field, byte[] frame, int fieldOffset) throws ISOException {
+        int digits = prefixDigits[field];
+        if (digits == 0) {
+            return maxLength[field];
+        }
+
+        if (fieldOffset + digits > frame.length) {
+            throw new ISOException("Field " + field + " length prefix truncated");
+        }
+
+        int length = 0;
+        for (int i = 0; i < digits; i++) {
+            int d = frame[fieldOffset + i] - '0';
+            if (d < 0 || d > 9) {
+                throw new ISOException("Field " + field + " has invalid length prefix");
+            }
+            length = length * 10 + d;
+        }
+
+        if (length > maxLength[field]) {
+            throw new ISOException("Field " + field + " length " + length
+                    + " exceeds max " + maxLength[field]);
+        }
+        return length;
+    }
+
+    /**
+     * 문자 필드 값을 디코딩한다. IF_CHAR 필드는 팩할 때 붙은 뒤쪽 공백 패딩을 제거한다.
+     * {@link IsoMessageView#getString(int)}와 {@link RawIsoField#getValue()}가 함께 사용한다.
+     */
+    static String decodeChars(byte[] frame, int start, int length, boolean spacePadded) {
+        if (spacePadded) {
+            while (length > 0 && frame[start + length - 1] == ' ') {
+                length--;
+            }
+        }
+        return new String(frame, start, length, StandardCharsets.ISO_8859_1);
+    }
+
+    /**
+     * 이미 언팩된 IF_CHAR 값에서 {@link #decodeChars}와 같은 규칙으로 뒤쪽 공백을 제거한다.
+     */
+    static String stripPadding(String value) {
+        int length = value.length();
+        while (length > 0 && value.charAt(length - 1) == ' ') {
+            length--;
+        }
+        return value.substring(0, length);
+    }
+
+    private static boolean isField(ISOFieldPackager fp, Class<?> type, int length) {
+        return fp != null && fp.getClass() == type && fp.getLength() == length;
+    }
+}
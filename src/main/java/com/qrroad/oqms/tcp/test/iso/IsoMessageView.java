@@ -0,0 +1,222 @@
+package com.qrroad.oqms.tcp.test.iso;
+
+import org.jpos.iso.ISOBinaryField;
+import org.jpos.iso.ISOException;
+import org.jpos.iso.ISOMsg;
+import org.jpos.iso.ISOPackager;
+import org.jpos.iso.ISOUtil;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * 수신 프레임 바이트 위에 얹는 지연(lazy) ISO8583 메시지 뷰.
+ *
+ * <p>MTI 와 비트맵만 생성 시점에 파싱하고, 필드 오프셋은 요청된 필드까지만 순차 계산한다.
+ * 전체 {@link ISOMsg} 트리는 {@link #toISOMsg()}가 처음 호출될 때에만 만든다.
+ * {@link #copyField(int, ISOMsg)}로 복사한 필드는 디코딩/재인코딩 없이 원본 바이트 그대로
+ * {@link IsoMessageWriter}가 응답에 기록한다.
+ *
+ * <p>뷰는 한 메시지를 처리하는 스레드에서만 사용한다(thread-safe 하지 않음).
+ */
+public final class IsoMessageView {
+
+    private final byte[] frame;
+    private final IsoFieldLayout layout;
+
+    private final String mti;
+    private final long primaryBitmap;
+    private final long secondaryBitmap;
+
+    private int[] fieldOffsets;
+    private int scannedField;
+    private int scanOffset;
+
+    private ISOMsg materialized;
+
+    private IsoMessageView(byte[] frame, IsoFieldLayout layout) throws ISOException {
+        this.frame = frame;
+        this.layout = layout;
+
+        if (!layout.isSupported()) {
+            this.materialized = unpack(frame, layout.getPackager());
+            this.mti = materialized.getMTI();
+            this.primaryBitmap = 0L;
+            this.secondaryBitmap = 0L;
+            return;
+        }
+
+        int mtiLength = layout.getMtiLength();
+        if (frame.length < mtiLength + 16) {
+            throw new ISOException("Message too short: " + frame.length);
+        }
+
+        this.mti = new String(frame, 0, mtiLength, StandardCharsets.ISO_8859_1);
+        this.primaryBitmap = parseHex(frame, mtiLength);
+
+        int offset = mtiLength + 16;
+        if (primaryBitmap < 0 && layout.hasSecondaryBitmap()) { // 1번 비트 = 2차 비트맵
+            if (frame.length < offset + 16) {
+                throw new ISOException("Secondary bitmap truncated");
+            }
+            this.secondaryBitmap = parseHex(frame, offset);
+            offset += 16;
+        } else {
+            this.secondaryBitmap = 0L;
+        }
+
+        this.scannedField = 1;
+        this.scanOffset = offset;
+    }
+
+    public static IsoMessageView wrap(byte[] frame, IsoFieldLayout layout) throws ISOException {
+        return new IsoMessageView(frame, layout);
+    }
+
+    public String getMTI() {
+        return mti;
+    }
+
+    public ISOPackager getPackager() {
+        return layout.getPackager();
+    }
+
+    public IsoFieldLayout getLayout() {
+        return layout;
+    }
+
+    public boolean hasField(int field) {
+        if (materialized != null && !layout.isSupported()) {
+            return materialized.hasField(field);
+        }
+        if (field < 2 || field > IsoFieldLayout.MAX_FIELD) {
+            return false;
+        }
+        return field <= 64
+                ? (primaryBitmap << (field - 1)) < 0
+                : (secondaryBitmap << (field - 65)) < 0;
+    }
+
+    /**
+     * 필드 값을 디코딩해 반환한다. IF_CHAR 필드는 팩할 때 붙은 뒤쪽 공백 패딩을 제거해 송신한 값을 돌려주고
+     * (jPOS 언팩은 패딩을 남긴다), 숫자 필드는 0 패딩을 유지하며, 바이너리 필드는 HEX 문자열로 반환한다.
+     * 복사된 필드({@link RawIsoField})와 언팩 대체 경로도 같은 규칙을 따른다.
+     */
+    public String getString(int field) throws ISOException {
+        if (!layout.isSupported()) {
+            String value = materialized.getString(field);
+            return value != null && layout.isSpacePadded(field) ? IsoFieldLayout.stripPadding(value) : value;
+        }
+
+        int offset = locate(field);
+        if (offset < 0) {
+            return null;
+        }
+
+        int prefix = layout.getPrefixLength(field);
+        int length = layout.getValueLength(field, frame, offset);
+        if (layout.isBinary(field)) {
+            return ISOUtil.hexString(frame, offset, length);
+        }
+        return IsoFieldLayout.decodeChars(frame, offset + prefix, length, layout.isSpacePadded(field));
+    }
+
+    /**
+     * 요청 필드를 응답 메시지로 복사한다. 원본 바이트를 참조하는 필드로 설정하므로
+     * {@link IsoMessageWriter}로 팩할 때 디코딩/재인코딩이 일어나지 않는다.
+     */
+    public void copyField(int field, ISOMsg target) throws ISOException {
+        if (!layout.isSupported()) {
+            if (materialized.hasField(field)) {
+                target.set(materialized.getComponent(field));
+            }
+            return;
+        }
+
+        int offset = locate(field);
+        if (offset < 0) {
+            return;
+        }
+
+        int packedLength = layout.getPrefixLength(field) + layout.getValueLength(field, frame, offset);
+        if (layout.isBinary(field)) {
+            target.set(new ISOBinaryField(field, Arrays.copyOfRange(frame, offset, offset + packedLength)));
+        } else {
+            target.set(new RawIsoField(field, frame, offset, packedLength, layout.getPrefixLength(field),
+                    layout.isSpacePadded(field)));
+        }
+    }
+
+    /**
+     * 전체 필드를 언팩한 {@link ISOMsg}를 반환한다. 최초 호출 시 한 번만 언팩한다.
+     * jPOS 언팩 결과 그대로이므로 IF_CHAR 값에는 공백 패딩이 남아 있다.
+     */
+    public ISOMsg toISOMsg() throws ISOException {
+        if (materialized == null) {
+            materialized = unpack(frame, layout.getPackager());
+        }
+        return materialized;
+    }
+
+    public byte[] getFrame() {
+        return frame;
+    }
+
+    private int locate(int field) throws ISOException {
+        if (!hasField(field)) {
+            return -1;
+        }
+        if (field <= scannedField) {
+            return fieldOffsets[field];
+        }
+        if (fieldOffsets == null) {
+            fieldOffsets = new int[IsoFieldLayout.MAX_FIELD + 1];
+        }
+
+        int offset = scanOffset;
+        for (int i = scannedField + 1; i <= field; i++) {
+            if (!hasField(i)) {
+                continue;
+            }
+            if (layout.getFieldPackager(i) == null) {
+                throw new ISOException("Field " + i + " is not defined in packager");
+            }
+
+            fieldOffsets[i] = offset;
+            offset += layout.getPrefixLength(i) + layout.getValueLength(i, frame, offset);
+            if (offset > frame.length) {
+                throw new ISOException("Field " + i + " truncated");
+            }
+        }
+
+        scannedField = field;
+        scanOffset = offset;
+        return fieldOffsets[field];
+    }
+
+    private static ISOMsg unpack(byte[] frame, ISOPackager packager) throws ISOException {
+        ISOMsg msg = new ISOMsg();
+        msg.setPackager(packager);
+        msg.unpack(frame);
+        return msg;
+    }
+
+    private static long parseHex(byte[] b, int offset) throws ISOException {
+        long value = 0L;
+        for (int i = 0; i < 16; i++) {
+            int c = b[offset + i];
+            int nibble;
+            if (c >= '0' && c <= '9') {
+                nibble = c - '0';
+            } else if (c >= 'A' && c <= 'F') {
+                nibble = c - 'A' + 10;
+            } else if (c >= 'a' && c <= 'f') {
+                nibble = c - 'a' + 10;
+            } else {
+                throw new ISOException("Invalid bitmap character at " + (offset + i));
+            }
+            value = (value << 4) | nibble;
+        }
+        return value;
+    }
+}
@@ -0,0 +1,78 @@
+package com.qrroad.oqms.tcp.test.iso;
+
+import org.jpos.iso.ISOComponent;
+import org.jpos.iso.ISOException;
+import org.jpos.iso.ISOFieldPackager;
+import org.jpos.iso.ISOMsg;
+
+import java.util.Arrays;
+
+/**
+ * {@link ISOMsg}를 연결별 재사용 버퍼에 팩한다.
+ * {@link IsoMessageView#copyField(int, ISOMsg)}로 복사된 필드는 원본 바이트를 그대로 복사하고,
+ * 나머지 필드는 패키저의 필드 패키저로 팩한다. 연결(스레드)마다 하나씩 사용한다.
+ */
+public final class IsoMessageWriter {
+
+    private byte[] buffer;
+
+    public IsoMessageWriter(int initialCapacity) {
+        this.buffer = new byte[initialCapacity];
+    }
+
+    /**
+     * 메시지를 내부 버퍼에 팩하고 길이를 반환한다. 내용은 {@link #getBuffer()}로 읽는다.
+     * layout 은 메시지의 패키저와 같은 스냅샷의 것이어야 한다.
+     */
+    public int pack(ISOMsg msg, IsoFieldLayout layout) throws ISOException {
+        if (!layout.isSupported()) {
+            byte[] packed = msg.pack();
+            ensureCapacity(packed.length);
+            System.arraycopy(packed, 0, buffer, 0, packed.length);
+            return packed.length;
+        }
+
+        msg.recalcBitMap();
+
+        int position = 0;
+        position = append(position, layout.getMtiPackager().pack(msg.getComponent(0)));
+        position = append(position, layout.getBitmapPackager().pack(msg.getComponent(-1)));
+
+        int maxField = Math.min(msg.getMaxField(), IsoFieldLayout.MAX_FIELD);
+        for (int i = 2; i <= maxField; i++) {
+            ISOComponent c = msg.getComponent(i);
+            if (c == null) {
+                continue;
+            }
+
+            if (c instanceof RawIsoField raw) {
+                ensureCapacity(position + raw.getPackedLength());
+                position += raw.writeTo(buffer, position);
+            } else {
+                ISOFieldPackager fp = layout.getFieldPackager(i);
+                if (fp == null) {
+                    throw new ISOException("Field " + i + " is not defined in packager");
+                }
+                position = append(position, fp.pack(c));
+            }
+        }
+
+        return position;
+    }
+
+    public byte[] getBuffer() {
+        return buffer;
+    }
+
+    private int append(int position, byte[] bytes) {
+        ensureCapacity(position + bytes.length);
+        System.arraycopy(bytes, 0, buffer, position, bytes.length);
+        return position + bytes.length;
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity > buffer.length) {
+            buffer = Arrays.copyOf(buffer, Math.max(capacity, buffer.length * 2));
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package com.qrroad.oqms.tcp.test.iso;
+
+import org.jpos.iso.ISOField;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * 수신 프레임의 팩된 필드 바이트(길이 접두부 포함)를 그대로 참조하는 필드.
+ * {@link IsoMessageWriter}는 바이트를 그대로 복사하고, 일반 jPOS 경로에서 값이 필요하면
+ * 그때 한 번 {@link IsoMessageView#getString(int)}와 같은 규칙으로 디코딩한다.
+ */
+final class RawIsoField extends ISOField {
+
+    private static final long serialVersionUID = 1L;
+
+    private final byte[] frame;
+    private final int offset;
+    private final int packedLength;
+    private final int prefixLength;
+    private final boolean spacePadded;
+
+    private String decoded;
+
+    RawIsoField(int fieldNumber, byte[] frame, int offset, int packedLength, int prefixLength,
+                boolean spacePadded) {
+        super(fieldNumber);
+        this.frame = frame;
+        this.offset = offset;
+        this.packedLength = packedLength;
+        this.prefixLength = prefixLength;
+        this.spacePadded = spacePadded;
+    }
+
+    @Override
+    public Object getValue() {
+        if (decoded == null) {
+            decoded = IsoFieldLayout.decodeChars(frame, offset + prefixLength, packedLength - prefixLength,
+                    spacePadded);
+        }
+        return decoded;
+    }
+
+    @Override
+    public byte[] getBytes() {
+        return ((String) getValue()).getBytes(StandardCharsets.ISO_8859_1);
+    }
+
+    int writeTo(byte[] target, int targetOffset) {
+        System.arraycopy(frame, offset, target, targetOffset, packedLength);
+        return packedLength;
+    }
+
+    int getPackedLength() {
+        return packedLength;
+    }
+}
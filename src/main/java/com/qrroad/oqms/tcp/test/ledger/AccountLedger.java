@@ -0,0 +1,172 @@
+package com.qrroad.oqms.tcp.test.ledger;
+
+import com.qrroad.oqms.tcp.test.config.TcpTestProperties;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.OptionalLong;
+
+/**
+ * 카드 회원 계좌 잔액 원장. {@code tcp.test.ledger.seed-file}을 지정하면 PAN 별 잔액을 적재하고,
+ * 구매 승인 시 차감, 취소 승인 시 환원한다. 파일이 없으면 원장을 사용하지 않는다.
+ *
+ * <p>취소는 원장에서 실제로 차감된 구매(PAN + 원거래 STAN + RRN)와 짝이 맞을 때만 그 금액을 한 번 환원한다.
+ * 거절/원장 밖/중복 취소는 잔액을 바꾸지 않으며, 차감 기록은 고정 크기 테이블({@code max-pending-debits}건 목표)에 보관한다.
+ * 원장 없이 승인한 구매도 환원 금액 없이 같은 테이블에 기록하므로, 원장 사용 여부와 관계없이
+ * {@link #reverse}의 결과로 취소가 승인된 원거래와 짝이 맞는지(정산 합계에 반영할지) 판단할 수 있다.
+ *
+ * <p>잔액 갱신과 차감 기록은 모두 슬롯 단위 CAS 이므로 여러 연결 워커가 서로 다른 계좌를 처리할 때 직렬화되지 않는다.
+ * 차감 기록에는 적재 세대 번호를 함께 남기고, 재적재는 테이블과 세대 번호를 한 번에 교체한다. 그래서 교체 중에 처리된 거래는
+ * 이전 테이블에만 반영되고, 이전 잔액 기준의 차감은 취소와 짝은 맞아도 새 잔액으로 환원되지 않는다.
+ */
+@Slf4j
+@Component
+public class AccountLedger {
+
+    public enum DebitResult {
+        APPROVED,
+        INSUFFICIENT_FUNDS,
+        UNKNOWN_ACCOUNT
+    }
+
+    // 값 = 세대 번호(상위 23비트) + 금액(하위 40비트, 12자리 필드 4 최대값 포함)
+    private static final int AMOUNT_BITS = 40;
+    private static final long AMOUNT_MASK = (1L << AMOUNT_BITS) - 1;
+    private static final int GENERATION_MASK = (1 << 23) - 1;
+
+    private final TcpTestProperties properties;
+    private final PendingDebits pendingDebits;
+
+    private volatile Generation generation;
+    private int loads;
+
+    public AccountLedger(TcpTestProperties properties) {
+        this.properties = properties;
+        this.pendingDebits = new PendingDebits(properties.getLedger().getMaxPendingDebits());
+        if (getSeedFile() != null) {
+            try {
+                reload();
+            } catch (IOException e) {
+                throw new UncheckedIOException("Failed to load account ledger", e);
+            }
+        }
+    }
+
+    public boolean isEnabled() {
+        return generation != null;
+    }
+
+    /**
+     * 원장에 없는 PAN 을 "14"(카드번호 오류)로 거절할지 여부. 꺼져 있으면 원장 없이 승인한다.
+     */
+    public boolean isDeclineUnknown() {
+        return generation != null && properties.getLedger().isDeclineUnknown();
+    }
+
+    public OptionalLong getBalance(String pan) {
+        Generation current = generation;
+        int slot = current != null ? current.table.find(pan) : -1;
+        return slot >= 0 ? OptionalLong.of(current.table.balance(slot)) : OptionalLong.empty();
+    }
+
+    /**
+     * 잔액에서 차감하고, 성공하면 이후 취소로 환원할 수 있도록 STAN/RRN 과 함께 기록한다.
+     */
+    public DebitResult debit(String pan, long amount, String stan, String rrn) {
+        Generation current = generation;
+        int slot = current != null ? current.table.find(pan) : -1;
+        if (slot < 0) {
+            return DebitResult.UNKNOWN_ACCOUNT;
+        }
+        if (amount < 0 || amount > AMOUNT_MASK) {
+            throw new IllegalArgumentException("Amount out of range: " + amount);
+        }
+        if (!current.table.debit(slot, amount)) {
+            return DebitResult.INSUFFICIENT_FUNDS;
+        }
+        pendingDebits.put(PendingDebits.key(pan, stan, rrn), (long) current.id << AMOUNT_BITS | amount);
+        return DebitResult.APPROVED;
+    }
+
+    /**
+     * 원장 밖에서 승인한 구매를 환원 금액 없이 기록한다 (원장을 사용하지 않아도 기록).
+     */
+    public void recordApproval(String pan, String stan, String rrn) {
+        pendingDebits.put(PendingDebits.key(pan, stan, rrn), 0L); // 세대 0 은 어떤 적재와도 맞지 않아 환원하지 않는다
+    }
+
+    /**
+     * 원거래 차감 기록이 있으면 꺼내서 true. 현재 테이블에서 차감된 기록이면 그 금액을 환원하고,
+     * 재적재 전 기록이나 원장 밖 승인 기록이면 환원하지 않는다.
+     * 기록이 없으면(거절된 거래, 이미 취소한 중복 취소, 알 수 없는 원거래) false.
+     */
+    public boolean reverse(String pan, String originalStan, String originalRrn) {
+        long entry = pendingDebits.remove(PendingDebits.key(pan, originalStan, originalRrn));
+        if (entry < 0) {
+            return false;
+        }
+        Generation current = generation;
+        if (current != null && (entry >>> AMOUNT_BITS) == current.id) {
+            // 같은 세대에서 차감된 기록이므로 계좌가 반드시 존재한다
+            current.table.credit(current.table.find(pan), entry & AMOUNT_MASK);
+        }
+        return true;
+    }
+
+    /**
+     * 시드 파일을 다시 읽어 모든 잔액을 초기화한다.
+     */
+    public synchronized void reload() throws IOException {
+        Path file = getSeedFile();
+        if (file == null) {
+            throw new IllegalStateException("tcp.test.ledger.seed-file is not configured");
+        }
+
+        long start = System.nanoTime();
+        AccountTable loaded = AccountTable.load(file);
+        // 잔액이 초기화되므로 이전 세대의 차감 기록은 더 이상 환원하지 않는다
+        loads = (loads + 1) & GENERATION_MASK;
+        generation = new Generation(loaded, loads, Instant.now());
+        log.info("Loaded {} accounts from {} in {}ms ({} slots, {} bytes)", loaded.size(), file,
+                (System.nanoTime() - start) / 1_000_000, loaded.capacity(), loaded.memoryBytes());
+    }
+
+    public Map<String, Object> getStatus() {
+        Generation current = generation;
+        Path file = getSeedFile();
+
+        Map<String, Object> status = new LinkedHashMap<>();
+        status.put("enabled", current != null);
+        status.put("seedFile", file != null ? file.toString() : null);
+        status.put("declineUnknown", properties.getLedger().isDeclineUnknown());
+        if (current != null) {
+            AccountTable table = current.table;
+            status.put("loadedAt", current.loadedAt.toString());
+            status.put("accounts", table.size());
+            status.put("slots", table.capacity());
+            status.put("memoryBytes", table.memoryBytes());
+            status.put("bytesPerAccount", (double) table.memoryBytes() / table.size());
+        }
+        status.put("pendingDebits", pendingDebits.size());
+        status.put("pendingDebitSlots", pendingDebits.capacity());
+        status.put("pendingDebitMemoryBytes", pendingDebits.memoryBytes());
+        return status;
+    }
+
+    private Path getSeedFile() {
+        String seedFile = properties.getLedger().getSeedFile();
+        return seedFile != null && !seedFile.isBlank() ? Path.of(seedFile) : null;
+    }
+
+    /**
+     * 한 번의 적재로 만들어진 잔액 테이블과 그 세대 번호 (차감 기록에 함께 남긴다).
+     */
+    private record Generation(AccountTable table, int id, Instant loadedAt) {
+    }
+}
@@ -0,0 +1,207 @@
+package com.qrroad.oqms.tcp.test.ledger;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * PAN → 잔액 개방 주소법(선형 탐사) 해시 테이블. 계좌 객체 없이 원시 배열 두 개만 사용한다.
+ *
+ * <p>키는 PAN 숫자열(19자리까지)을 자릿수별 구간으로 나눈 부호 없는 long 번호이므로 앞자리 0 이 다른 PAN 도 서로 다른 키가 되고,
+ * 0 은 빈 슬롯을 뜻한다.
+ * 키 배열은 적재 후 변경하지 않으므로 조회는 잠금 없이 읽고, 잔액은 슬롯 단위 CAS 로 갱신한다.
+ * 슬롯 수는 계좌 수 / 0.75 이상의 2의 거듭제곱이므로 계좌당 메모리는 약 21~43 바이트로 고정된다.
+ */
+final class AccountTable {
+
+    private static final double MAX_LOAD = 0.75;
+    private static final int MAX_PAN_DIGITS = 19;
+    private static final long[] LENGTH_OFFSETS = lengthOffsets();
+
+    private final long[] keys;
+    private final AtomicLongArray balances;
+    private final int mask;
+    private final int size;
+
+    private AccountTable(int capacity, int size) {
+        this.keys = new long[capacity];
+        this.balances = new AtomicLongArray(capacity);
+        this.mask = capacity - 1;
+        this.size = size;
+    }
+
+    /**
+     * {@code pan,balance} 형식의 줄 단위 파일을 읽는다. 빈 줄과 {@code #} 주석은 건너뛰고,
+     * 같은 PAN 이 다시 나오면 뒤의 잔액으로 덮어쓴다. 파일을 두 번 읽어 계좌 수만큼만 할당한다.
+     */
+    static AccountTable load(Path file) throws IOException {
+        int count = 0;
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.US_ASCII)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (!isSkipped(line)) {
+                    count++;
+                }
+            }
+        }
+        if (count == 0) {
+            throw new IOException("Account file is empty: " + file);
+        }
+
+        AccountTable table = new AccountTable(capacityFor(count), count);
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.US_ASCII)) {
+            String line;
+            int lineNumber = 0;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (isSkipped(line)) {
+                    continue;
+                }
+
+                int comma = line.indexOf(',');
+                long key = comma > 0 ? toKey(line.substring(0, comma).trim()) : 0L;
+                if (key == 0L) {
+                    throw new IOException("Invalid PAN at " + file + ":" + lineNumber);
+                }
+                long balance;
+                try {
+                    balance = Long.parseLong(line.substring(comma + 1).trim());
+                } catch (NumberFormatException e) {
+                    throw new IOException("Invalid balance at " + file + ":" + lineNumber, e);
+                }
+                if (balance < 0) {
+                    throw new IOException("Negative balance at " + file + ":" + lineNumber);
+                }
+                table.put(key, balance);
+            }
+        }
+        return table;
+    }
+
+    int size() {
+        return size;
+    }
+
+    int capacity() {
+        return keys.length;
+    }
+
+    /**
+     * 키 배열(long)과 잔액 배열(long)의 슬롯당 16 바이트 기준 추정치.
+     */
+    long memoryBytes() {
+        return (long) keys.length * (Long.BYTES * 2);
+    }
+
+    /**
+     * PAN 의 슬롯 번호, 없으면 -1.
+     */
+    int find(String pan) {
+        long key = toKey(pan);
+        if (key == 0L) {
+            return -1;
+        }
+        int slot = (int) mix(key) & mask;
+        while (true) {
+            long current = keys[slot];
+            if (current == key) {
+                return slot;
+            }
+            if (current == 0L) {
+                return -1;
+            }
+            slot = (slot + 1) & mask;
+        }
+    }
+
+    long balance(int slot) {
+        return balances.get(slot);
+    }
+
+    /**
+     * 잔액이 충분하면 차감하고 true. 다른 스레드와 경합하면 최신 잔액으로 다시 시도한다.
+     */
+    boolean debit(int slot, long amount) {
+        while (true) {
+            long current = balances.get(slot);
+            if (current < amount) {
+                return false;
+            }
+            if (balances.compareAndSet(slot, current, current - amount)) {
+                return true;
+            }
+        }
+    }
+
+    long credit(int slot, long amount) {
+        return balances.addAndGet(slot, amount);
+    }
+
+    private void put(long key, long balance) {
+        int slot = (int) mix(key) & mask;
+        while (keys[slot] != 0L && keys[slot] != key) {
+            slot = (slot + 1) & mask;
+        }
+        keys[slot] = key;
+        balances.set(slot, balance);
+    }
+
+    private static boolean isSkipped(String line) {
+        String trimmed = line.trim();
+        return trimmed.isEmpty() || trimmed.charAt(0) == '#';
+    }
+
+    private static int capacityFor(int count) {
+        long needed = (long) Math.ceil(count / MAX_LOAD);
+        if (needed > 1 << 30) {
+            throw new IllegalArgumentException("Too many accounts: " + count);
+        }
+        return Math.max(16, Integer.highestOneBit((int) needed - 1) << 1);
+    }
+
+    /**
+     * PAN 숫자열을 키로 변환한다. 숫자가 아니거나 19자리를 넘으면 0.
+     *
+     * <p>짧은 자릿수부터 구간을 이어 붙인 번호({@code 1 + (10 + 100 + ... + 10^(n-1)) + 숫자값})이므로
+     * "0012"와 "12", 모두 0 인 PAN 도 0 이 아닌 서로 다른 키가 된다. 19자리 최대값도 부호 없는 long 범위(약 1.8e19) 안이다.
+     */
+    static long toKey(String pan) {
+        if (pan == null || pan.isEmpty() || pan.length() > MAX_PAN_DIGITS) {
+            return 0L;
+        }
+        long value = 0L;
+        for (int i = 0; i < pan.length(); i++) {
+            char c = pan.charAt(i);
+            if (c < '0' || c > '9') {
+                return 0L;
+            }
+            value = value * 10 + (c - '0');
+        }
+        return LENGTH_OFFSETS[pan.length()] + value;
+    }
+
+    private static long[] lengthOffsets() {
+        long[] offsets = new long[MAX_PAN_DIGITS + 1];
+        long offset = 1L;
+        long span = 10L;
+        for (int length = 1; length <= MAX_PAN_DIGITS; length++) {
+            offsets[length] = offset;
+            offset += span;
+            span *= 10;
+        }
+        return offsets;
+    }
+
+    private static long mix(long key) {
+        // MurmurHash3 fmix64: 연속된 PAN 도 슬롯에 고르게 흩어지도록
+        key ^= key >>> 33;
+        key *= 0xff51afd7ed558ccdL;
+        key ^= key >>> 33;
+        key *= 0xc4ceb9fe1a85ec53L;
+        key ^= key >>> 33;
+        return key;
+    }
+}
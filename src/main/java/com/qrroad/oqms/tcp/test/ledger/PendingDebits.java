@@ -0,0 +1,136 @@
+package com.qrroad.oqms.tcp.test.ledger;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * 취소로 짝을 맞출 승인 기록 (PAN + STAN + RRN 의 64비트 해시 → 0 이상의 long 값).
+ *
+ * <p>{@link AccountTable}처럼 객체 없이 원시 배열 두 개만 쓰는 고정 크기 테이블이다. 슬롯은 8개씩 묶은 버킷으로 나누고
+ * 키 해시로 버킷 하나만 본다(탐사 없음). 슬롯은 키를 CAS 로 {@code BUSY}로 잡은 뒤 값을 쓰고 키를 되돌려 놓으므로
+ * 잠금 없이 서로 다른 거래가 동시에 기록/제거할 수 있다. 버킷이 가득 차면 그 안의 임의의 기록을 덮어쓰므로
+ * 메모리는 생성 시 할당한 슬롯당 16 바이트로 고정되고, 오래 취소되지 않은 기록부터 확률적으로 밀려난다.
+ */
+final class PendingDebits {
+
+    private static final int WAYS = 8;
+    private static final long EMPTY = 0L;
+    private static final long BUSY = 1L;
+    private static final int MAX_SLOTS = 1 << 30;
+
+    private final AtomicLongArray keys;
+    // 키 슬롯을 BUSY 로 잡은 스레드만 쓰고, 이어지는 키의 volatile 쓰기로 다른 스레드에 보인다
+    private final long[] values;
+    private final int bucketMask;
+
+    /**
+     * @param capacity 보관 목표 건수. 버킷 충돌로 인한 덮어쓰기를 줄이도록 슬롯은 그 2배 이상의 2의 거듭제곱으로 잡는다.
+     */
+    PendingDebits(int capacity) {
+        if (capacity < 1 || capacity > MAX_SLOTS / 2) {
+            throw new IllegalArgumentException("max-pending-debits must be between 1 and " + MAX_SLOTS / 2 + ": " + capacity);
+        }
+        int slots = Math.max(WAYS * 2, Integer.highestOneBit(capacity * 2 - 1) << 1);
+        this.keys = new AtomicLongArray(slots);
+        this.values = new long[slots];
+        this.bucketMask = slots / WAYS - 1;
+    }
+
+    /**
+     * 거래 식별자의 64비트 해시 (FNV-1a 후 fmix64). 빈 슬롯/사용 중 표시와 겹치지 않게 0, 1 은 피한다.
+     */
+    static long key(String pan, String stan, String rrn) {
+        long hash = 0xcbf29ce484222325L;
+        hash = fnv(hash, pan);
+        hash = fnv(hash, stan);
+        hash = fnv(hash, rrn);
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash == EMPTY || hash == BUSY ? hash + 2 : hash;
+    }
+
+    /**
+     * 빈 슬롯에 기록한다. 버킷이 가득 차면 그 안의 임의의 기록을 덮어쓴다.
+     */
+    void put(long key, long value) {
+        int base = bucket(key);
+        for (int i = 0; i < WAYS; i++) {
+            int slot = base + i;
+            if (keys.get(slot) == EMPTY && keys.compareAndSet(slot, EMPTY, BUSY)) {
+                write(slot, key, value);
+                return;
+            }
+        }
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        while (true) {
+            int slot = base + random.nextInt(WAYS);
+            long victim = keys.get(slot);
+            if (victim != BUSY && keys.compareAndSet(slot, victim, BUSY)) {
+                write(slot, key, value);
+                return;
+            }
+        }
+    }
+
+    /**
+     * 기록을 꺼내 값을 반환한다. 없으면(이미 꺼냈거나 덮어써진 경우) -1.
+     */
+    long remove(long key) {
+        int base = bucket(key);
+        for (int i = 0; i < WAYS; i++) {
+            int slot = base + i;
+            if (keys.get(slot) == key && keys.compareAndSet(slot, key, BUSY)) {
+                long value = values[slot];
+                keys.set(slot, EMPTY);
+                return value;
+            }
+        }
+        return -1L;
+    }
+
+    /**
+     * 전체 슬롯을 훑어 센다. 상태 조회용이며 동시 갱신 중이면 근사값이다.
+     */
+    int size() {
+        int size = 0;
+        for (int slot = 0; slot < keys.length(); slot++) {
+            long key = keys.get(slot);
+            if (key != EMPTY && key != BUSY) {
+                size++;
+            }
+        }
+        return size;
+    }
+
+    int capacity() {
+        return keys.length();
+    }
+
+    long memoryBytes() {
+        return (long) keys.length() * (Long.BYTES * 2);
+    }
+
+    private void write(int slot, long key, long value) {
+        values[slot] = value;
+        keys.set(slot, key);
+    }
+
+    private int bucket(long key) {
+        return ((int) key & bucketMask) * WAYS;
+    }
+
+    private static long fnv(long hash, String value) {
+        if (value != null) {
+            for (int i = 0; i < value.length(); i++) {
+                hash ^= value.charAt(i);
+                hash *= 0x100000001b3L;
+            }
+        }
+        // 필드 경계를 섞어 ("12","3")과 ("1","23")이 같은 해시가 되지 않게 한다
+        hash ^= 0xff;
+        return hash * 0x100000001b3L;
+    }
+}
@@ -0,0 +1,161 @@
+package com.qrroad.oqms.tcp.test.scenario;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * 줄 단위 레코드 파일(PAN, 단말기 ID, 가맹점 ID 등)을 메모리 매핑해 임의 접근하는 풀.
+ *
+ * <p>레코드는 힙에 올리지 않고 페이지 캐시에서 직접 읽는다. 모든 줄의 길이가 같으면(고정폭)
+ * 오프셋 인덱스 없이 {@code index * stride}로 접근하고, 그렇지 않으면 레코드당 4바이트 오프셋
+ * 배열만 힙에 둔다. 절대 위치 읽기만 사용하므로 여러 스레드에서 동시에 사용해도 된다.
+ * 파일 크기는 2GB 미만이어야 한다.
+ */
+@Slf4j
+public final class MappedRecordPool {
+
+    private final Path file;
+    private final MappedByteBuffer buffer;
+    private final int size;
+    private final int stride;          // 고정폭 레코드의 줄 길이(개행 포함), 가변폭이면 0
+    private final int recordLength;    // 고정폭 레코드 길이(개행 제외)
+    private final int[] offsets;       // 가변폭 레코드 시작 오프셋 (마지막 원소 = 파일 끝)
+
+    private MappedRecordPool(Path file, MappedByteBuffer buffer, int size, int stride,
+                             int recordLength, int[] offsets) {
+        this.file = file;
+        this.buffer = buffer;
+        this.size = size;
+        this.stride = stride;
+        this.recordLength = recordLength;
+        this.offsets = offsets;
+    }
+
+    public static MappedRecordPool open(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long fileSize = channel.size();
+            if (fileSize > Integer.MAX_VALUE) {
+                throw new IOException("Record file too large (max 2GB): " + file);
+            }
+
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, fileSize);
+            int length = (int) fileSize;
+
+            MappedRecordPool pool = tryFixedWidth(file, buffer, length);
+            if (pool == null) {
+                pool = indexed(file, buffer, length);
+            }
+
+            if (pool.size == 0) {
+                throw new IOException("Record file is empty: " + file);
+            }
+            log.info("Mapped {} records from {} ({})", pool.size, file,
+                    pool.stride > 0 ? "fixed width " + pool.recordLength : "indexed");
+            return pool;
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public Path getFile() {
+        return file;
+    }
+
+    public String get(int index) {
+        int start;
+        int end;
+        if (stride > 0) {
+            start = index * stride;
+            end = start + recordLength;
+        } else {
+            start = offsets[index];
+            end = offsets[index + 1];
+        }
+
+        // 가변폭 레코드는 개행(\r\n)을, 고정폭 레코드는 뒤쪽 공백 패딩을 제외
+        while (end > start && isTrailing(buffer.get(end - 1))) {
+            end--;
+        }
+
+        byte[] bytes = new byte[end - start];
+        buffer.get(start, bytes, 0, bytes.length);
+        return new String(bytes, StandardCharsets.ISO_8859_1);
+    }
+
+    public String random() {
+        return get(ThreadLocalRandom.current().nextInt(size));
+    }
+
+    private static MappedRecordPool tryFixedWidth(Path file, MappedByteBuffer buffer, int length) {
+        int firstNewline = indexOf(buffer, 0, length);
+        if (firstNewline < 0) {
+            return null;
+        }
+
+        int stride = firstNewline + 1;
+        int tail = length % stride;
+        if (stride < 2 || (tail != 0 && tail != stride - 1)) { // 마지막 줄 개행 생략 허용
+            return null;
+        }
+
+        // 모든 레코드 경계에만 개행이 있어야 고정폭 (가변폭 파일을 잘못된 오프셋으로 자르지 않도록 전체 검사)
+        int column = 0;
+        for (int i = 0; i < length; i++) {
+            boolean boundary = column == stride - 1;
+            if ((buffer.get(i) == '\n') != boundary) {
+                return null;
+            }
+            column = boundary ? 0 : column + 1;
+        }
+
+        int count = length / stride + (tail == 0 ? 0 : 1);
+        return new MappedRecordPool(file, buffer, count, stride, stride - 1, null);
+    }
+
+    private static MappedRecordPool indexed(Path file, MappedByteBuffer buffer, int length) {
+        int[] starts = new int[1024];
+        int count = 0;
+        int start = 0;
+
+        while (start < length) {
+            int newline = indexOf(buffer, start, length);
+            int end = newline < 0 ? length : newline;
+
+            if (end > start && !(end - start == 1 && buffer.get(start) == '\r')) { // 빈 줄 제외
+                if (count == starts.length) {
+                    starts = Arrays.copyOf(starts, starts.length * 2);
+                }
+                starts[count++] = start;
+            }
+            start = end + 1;
+        }
+
+        // 레코드 끝 = 다음 레코드 시작 (사이의 개행/빈 줄은 get 에서 제거)
+        int[] offsets = Arrays.copyOf(starts, count + 1);
+        offsets[count] = length;
+        return new MappedRecordPool(file, buffer, count, 0, 0, offsets);
+    }
+
+    private static int indexOf(MappedByteBuffer buffer, int from, int to) {
+        for (int i = from; i < to; i++) {
+            if (buffer.get(i) == '\n') {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static boolean isTrailing(byte b) {
+        return b == '\n' || b == '\r' || b == ' ';
+    }
+}
@@ -0,0 +1,315 @@
+package com.qrroad.oqms.tcp.test.scenario;
+
+import com.qrroad.oqms.tcp.test.config.TcpTestProperties;
+import org.jpos.iso.ISOException;
+import org.jpos.iso.ISOMsg;
+import org.jpos.iso.ISOPackager;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Supplier;
+
+/**
+ * 시나리오 정의에 따라 요청 메시지를 생성하는 엔진. 여러 워커 스레드가 락 없이 공유한다.
+ *
+ * <ul>
+ *   <li>MTI/처리코드 구성은 누적 가중치 배열 + 이진 탐색으로 선택</li>
+ *   <li>PAN/단말기/가맹점은 {@link MappedRecordPool}에서 무작위로 선택 (파일 미지정 시 기본값)</li>
+ *   <li>0400 항목은 앞서 승인된 0200 구매 거래를 하나 꺼내 취소(필드 90 원거래 정보 포함)하며,
+ *       취소할 승인 거래가 없으면 구매로 대체</li>
+ *   <li>시각 필드(7, 12, 13)는 초 단위로 캐시해 메시지마다 포맷하지 않음</li>
+ *   <li>패키저는 메시지마다 공급자에서 받아 재적재된 설정을 바로 따름</li>
+ * </ul>
+ */
+public final class ScenarioEngine {
+
+    private static final String PURCHASE = "000000";
+    private static final String APPROVED = "00";
+    private static final String ACQUIRER_ID = "00000000000";
+    private static final String FORWARDER_ID = "00000000000";
+    private static final Set<String> SUPPORTED_MTIS = Set.of("0200", "0400", "0800");
+
+    private final Supplier<ISOPackager> packager;
+    private final TcpTestProperties.Scenario scenario;
+
+    private final TcpTestProperties.MessageMix[] mix;
+    private final int[] cumulativeWeights;
+    private final int totalWeight;
+
+    private final MappedRecordPool pans;
+    private final MappedRecordPool terminals;
+    private final MappedRecordPool merchants;
+
+    private final AtomicReferenceArray<ApprovedPayment> approved;
+    private final int approvedMask;
+    private final AtomicLong approvedSequence = new AtomicLong();
+
+    private final AtomicInteger stanCounter = new AtomicInteger();
+    private final AtomicLong rrnCounter = new AtomicLong(System.currentTimeMillis() % 1_000_000_000L * 1000L);
+
+    private volatile TimeFields timeFields = TimeFields.of(System.currentTimeMillis() / 1000L);
+
+    public ScenarioEngine(Supplier<ISOPackager> packager, TcpTestProperties.Scenario scenario) throws IOException {
+        this.packager = packager;
+        this.scenario = scenario;
+
+        List<TcpTestProperties.MessageMix> entries = scenario.getMix().isEmpty()
+                ? List.of(new TcpTestProperties.MessageMix())
+                : scenario.getMix();
+        this.mix = entries.toArray(new TcpTestProperties.MessageMix[0]);
+        this.cumulativeWeights = new int[mix.length];
+        int total = 0;
+        for (int i = 0; i < mix.length; i++) {
+            if (mix[i].getWeight() < 0) {
+                throw new IllegalArgumentException("Scenario weight must not be negative: " + mix[i]);
+            }
+            if (!SUPPORTED_MTIS.contains(mix[i].getMti())) {
+                throw new IllegalArgumentException("Unsupported scenario MTI (expected one of "
+                        + SUPPORTED_MTIS + "): " + mix[i]);
+            }
+            total += mix[i].getWeight();
+            cumulativeWeights[i] = total;
+        }
+        if (total == 0) {
+            throw new IllegalArgumentException("Scenario mix has no positive weight");
+        }
+        this.totalWeight = total;
+
+        this.pans = openPool(scenario.getPanFile());
+        this.terminals = openPool(scenario.getTerminalFile());
+        this.merchants = openPool(scenario.getMerchantFile());
+
+        int capacity = Integer.highestOneBit(Math.max(1, scenario.getApprovedHistorySize() - 1)) << 1;
+        this.approved = new AtomicReferenceArray<>(capacity);
+        this.approvedMask = capacity - 1;
+    }
+
+    /**
+     * 다음 요청 메시지를 생성한다.
+     */
+    public ISOMsg next() throws ISOException {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        TcpTestProperties.MessageMix entry = pick(random);
+
+        return switch (entry.getMti()) {
+            case "0400" -> {
+                ApprovedPayment original = takeApproved(random);
+                yield original != null
+                        ? createReversal(original)
+                        : createFinancial(PURCHASE, random);
+            }
+            case "0800" -> createNetwork();
+            case "0200" -> createFinancial(entry.getProcessingCode(), random);
+            default -> throw new IllegalStateException("Unsupported scenario MTI: " + entry.getMti());
+        };
+    }
+
+    /**
+     * 응답을 반영한다. 승인된 구매 거래는 이후 취소 흐름의 원거래로 보관한다.
+     */
+    public void onResponse(ISOMsg request, ISOMsg response) {
+        if (response == null || !APPROVED.equals(response.getString(39))) {
+            return;
+        }
+        if (!"0210".equals(mtiOf(response)) || !PURCHASE.equals(request.getString(3))) {
+            return;
+        }
+
+        long sequence = approvedSequence.getAndIncrement();
+        approved.set((int) (sequence & approvedMask), new ApprovedPayment(
+                request.getString(2), request.getString(4), request.getString(7),
+                request.getString(11), request.getString(37),
+                request.getString(41), request.getString(42)));
+    }
+
+    /**
+     * 다음 요청 전 대기할 시간(나노초).
+     */
+    public long nextThinkTimeNanos() {
+        TcpTestProperties.ThinkTime thinkTime = scenario.getThinkTime();
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+
+        double millis = switch (thinkTime.getDistribution()) {
+            case "constant" -> thinkTime.getMeanMs();
+            case "uniform" -> thinkTime.getMaxMs() > thinkTime.getMinMs()
+                    ? random.nextDouble(thinkTime.getMinMs(), thinkTime.getMaxMs())
+                    : thinkTime.getMinMs();
+            case "exponential" -> -thinkTime.getMeanMs() * Math.log(1.0 - random.nextDouble());
+            default -> 0.0;
+        };
+        return (long) (millis * 1_000_000L);
+    }
+
+    public int getPanCount() {
+        return pans != null ? pans.size() : 1;
+    }
+
+    private TcpTestProperties.MessageMix pick(ThreadLocalRandom random) {
+        int point = random.nextInt(totalWeight);
+        int index = Arrays.binarySearch(cumulativeWeights, point + 1);
+        if (index < 0) {
+            index = -index - 1;
+        }
+        while (index > 0 && cumulativeWeights[index - 1] == cumulativeWeights[index]) {
+            index--; // 가중치 0 항목 건너뛰기
+        }
+        return mix[index];
+    }
+
+    private ApprovedPayment takeApproved(ThreadLocalRandom random) {
+        long sequence = approvedSequence.get();
+        if (sequence == 0) {
+            return null;
+        }
+
+        // 최근 승인 거래 중 하나를 꺼내 한 번만 취소되도록 슬롯을 비움
+        long window = Math.min(sequence, approved.length());
+        for (int attempt = 0; attempt < 4; attempt++) {
+            long candidate = sequence - 1 - random.nextLong(window);
+            ApprovedPayment payment = approved.getAndSet((int) (candidate & approvedMask), null);
+            if (payment != null) {
+                return payment;
+            }
+        }
+        return null;
+    }
+
+    private ISOMsg createFinancial(String processingCode, ThreadLocalRandom random) throws ISOException {
+        TimeFields time = currentTime();
+
+        ISOMsg msg = new ISOMsg();
+        msg.setPackager(packager.get());
+        msg.setMTI("0200");
+        msg.set(2, pans != null ? pans.random() : scenario.getDefaultPan());      // PAN
+        msg.set(3, processingCode);                                               // Processing code
+        if (!"380000".equals(processingCode)) {
+            long amount = scenario.getMaxAmount() > scenario.getMinAmount()
+                    ? random.nextLong(scenario.getMinAmount(), scenario.getMaxAmount() + 1)
+                    : scenario.getMinAmount();
+            msg.set(4, pad12(amount));                                            // Transaction amount
+        }
+        msg.set(7, time.transmission);                                            // Transmission date/time
+        msg.set(11, nextStan());                                                  // STAN
+        msg.set(12, time.localTime);                                              // Local time
+        msg.set(13, time.localDate);                                              // Local date
+        msg.set(18, "5999");                                                      // Merchant type
+        msg.set(22, "051");                                                       // POS entry mode
+        msg.set(25, "00");                                                        // POS condition code
+        msg.set(37, nextRrn());                                                   // RRN
+        msg.set(41, terminals != null ? terminals.random() : scenario.getDefaultTerminalId()); // Terminal ID
+        msg.set(42, merchants != null ? merchants.random() : scenario.getDefaultMerchantId()); // Merchant ID
+        msg.set(49, "410");                                                       // Currency code (KRW)
+        return msg;
+    }
+
+    private ISOMsg createReversal(ApprovedPayment original) throws ISOException {
+        TimeFields time = currentTime();
+
+        ISOMsg msg = new ISOMsg();
+        msg.setPackager(packager.get());
+        msg.setMTI("0400");
+        msg.set(2, original.pan());
+        msg.set(3, PURCHASE);
+        msg.set(4, original.amount());
+        msg.set(7, time.transmission);
+        msg.set(11, nextStan());
+        msg.set(12, time.localTime);
+        msg.set(13, time.localDate);
+        msg.set(37, original.rrn());                                              // 원거래 RRN
+        msg.set(41, original.terminalId());
+        msg.set(42, original.merchantId());
+        // 원거래 정보: MTI(4) + STAN(6) + 전송일시(10) + 매입기관(11) + 전달기관(11)
+        msg.set(90, "0200" + original.stan() + original.transmission() + ACQUIRER_ID + FORWARDER_ID);
+        return msg;
+    }
+
+    private ISOMsg createNetwork() throws ISOException {
+        ISOMsg msg = new ISOMsg();
+        msg.setPackager(packager.get());
+        msg.setMTI("0800");
+        msg.set(7, currentTime().transmission);
+        msg.set(11, nextStan());
+        msg.set(70, "001");
+        return msg;
+    }
+
+    private TimeFields currentTime() {
+        long second = System.currentTimeMillis() / 1000L;
+        TimeFields current = timeFields;
+        if (current.epochSecond != second) {
+            current = TimeFields.of(second);
+            timeFields = current;
+        }
+        return current;
+    }
+
+    private String nextStan() {
+        int stan = Math.floorMod(stanCounter.getAndIncrement(), 999_999) + 1;
+        return pad6(stan);
+    }
+
+    private String nextRrn() {
+        return pad12(rrnCounter.getAndIncrement() % 1_000_000_000_000L);
+    }
+
+    private static String pad6(int value) {
+        String s = Integer.toString(value);
+        return "000000".substring(s.length()) + s;
+    }
+
+    private static String pad12(long value) {
+        String s = Long.toString(value);
+        return "000000000000".substring(s.length()) + s;
+    }
+
+    private static String mtiOf(ISOMsg msg) {
+        try {
+            return msg.getMTI();
+        } catch (ISOException e) {
+            return null;
+        }
+    }
+
+    private static MappedRecordPool openPool(String location) throws IOException {
+        return location == null || location.isBlank() ? null : MappedRecordPool.open(Path.of(location));
+    }
+
+    private record ApprovedPayment(String pan, String amount, String transmission, String stan,
+                                   String rrn, String terminalId, String merchantId) {
+    }
+
+    private static final class TimeFields {
+        private final long epochSecond;
+        private final String transmission;   // MMddHHmmss
+        private final String localTime;      // HHmmss
+        private final String localDate;      // MMdd
+
+        private TimeFields(long epochSecond, String transmission, String localTime, String localDate) {
+            this.epochSecond = epochSecond;
+            this.transmission = transmission;
+            this.localTime = localTime;
+            this.localDate = localDate;
+        }
+
+        static TimeFields of(long epochSecond) {
+            LocalDateTime now = LocalDateTime.ofInstant(Instant.ofEpochSecond(epochSecond), ZoneId.systemDefault());
+            String date = two(now.getMonthValue()) + two(now.getDayOfMonth());
+            String time = two(now.getHour()) + two(now.getMinute()) + two(now.getSecond());
+            return new TimeFields(epochSecond, date + time, time, date);
+        }
+
+        private static String two(int value) {
+            return value < 10 ? "0" + value : Integer.toString(value);
+        }
+    }
+}
@@ -0,0 +1,153 @@
+package com.qrroad.oqms.tcp.test.scenario;
+
+import com.qrroad.oqms.tcp.test.client.TcpTestClient;
+import com.qrroad.oqms.tcp.test.config.ReloadableConfig;
+import com.qrroad.oqms.tcp.test.config.TcpTestProperties;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.jpos.iso.ISOMsg;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * {@link ScenarioEngine}이 만든 메시지를 워커 스레드들이 {@link TcpTestClient}로 전송하는 부하 실행기.
+ * 한 번에 하나의 실행만 허용한다.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ScenarioRunner {
+
+    private final TcpTestProperties properties;
+    private final ReloadableConfig config;
+    private final TcpTestClient tcpTestClient;
+
+    private final AtomicBoolean running = new AtomicBoolean(false);
+    private final LongAdder sent = new LongAdder();
+    private final LongAdder approved = new LongAdder();
+    private final LongAdder declined = new LongAdder();
+    private final LongAdder errors = new LongAdder();
+
+    private volatile List<Thread> workers = List.of();
+    private volatile long startedAt;
+    private volatile long finishedAt;
+
+    public boolean start(int workerCount, int durationSeconds) throws Exception {
+        // 이전 실행의 워커가 아직 응답을 기다리는 중이면 새 실행을 거절
+        if (workers.stream().anyMatch(Thread::isAlive) || !running.compareAndSet(false, true)) {
+            return false;
+        }
+
+        ScenarioEngine engine;
+        try {
+            engine = new ScenarioEngine(() -> config.current().packager(), properties.getScenario());
+        } catch (Exception e) {
+            running.set(false);
+            throw e;
+        }
+
+        sent.reset();
+        approved.reset();
+        declined.reset();
+        errors.reset();
+        startedAt = System.currentTimeMillis();
+        finishedAt = 0L;
+
+        long deadline = durationSeconds > 0 ? System.nanoTime() + durationSeconds * 1_000_000_000L : Long.MAX_VALUE;
+        List<Thread> threads = new ArrayList<>(workerCount);
+        for (int i = 0; i < workerCount; i++) {
+            Thread thread = new Thread(() -> runWorker(engine, deadline), "scenario-worker-" + i);
+            thread.setDaemon(true);
+            threads.add(thread);
+        }
+        workers = threads;
+        threads.forEach(Thread::start);
+
+        Thread monitor = new Thread(() -> awaitWorkers(threads), "scenario-monitor");
+        monitor.setDaemon(true);
+        monitor.start();
+
+        log.info("Scenario started: workers={}, duration={}s, pans={}",
+                workerCount, durationSeconds, engine.getPanCount());
+        return true;
+    }
+
+    public void stop() {
+        if (running.get()) {
+            log.info("Stopping scenario...");
+            running.set(false);
+            workers.forEach(LockSupport::unpark);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        stop();
+    }
+
+    public Map<String, Object> getStatus() {
+        long end = finishedAt > 0 ? finishedAt : System.currentTimeMillis();
+        long elapsedMs = startedAt > 0 ? end - startedAt : 0L;
+        long sentCount = sent.sum();
+
+        Map<String, Object> status = new HashMap<>();
+        status.put("running", running.get());
+        status.put("sent", sentCount);
+        status.put("approved", approved.sum());
+        status.put("declined", declined.sum());
+        status.put("errors", errors.sum());
+        status.put("elapsedMs", elapsedMs);
+        status.put("messagesPerSecond", elapsedMs > 0 ? sentCount * 1000.0 / elapsedMs : 0.0);
+        return status;
+    }
+
+    private void runWorker(ScenarioEngine engine, long deadline) {
+        while (running.get() && System.nanoTime() < deadline) {
+            try {
+                ISOMsg request = engine.next();
+                sent.increment();
+
+                ISOMsg response = tcpTestClient.sendMessage(request);
+                if (response == null) {
+                    errors.increment();
+                } else if ("00".equals(response.getString(39))) {
+                    approved.increment();
+                } else {
+                    declined.increment();
+                }
+                engine.onResponse(request, response);
+
+                long thinkNanos = engine.nextThinkTimeNanos();
+                if (thinkNanos > 0) {
+                    LockSupport.parkNanos(thinkNanos);
+                }
+
+            } catch (Exception e) {
+                errors.increment();
+                log.warn("Scenario worker error", e);
+            }
+        }
+    }
+
+    private void awaitWorkers(List<Thread> threads) {
+        for (Thread thread : threads) {
+            try {
+                thread.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+        finishedAt = System.currentTimeMillis();
+        running.set(false);
+        log.info("Scenario finished: {}", getStatus());
+    }
+}
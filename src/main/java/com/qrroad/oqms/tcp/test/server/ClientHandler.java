@@ -1,49 +1,110 @@
 package com.qrroad.oqms.tcp.test.server;
 
+import com.qrroad.oqms.tcp.test.config.ConfigSnapshot;
+import com.qrroad.oqms.tcp.test.config.ReloadableConfig;
 import com.qrroad.oqms.tcp.test.config.TcpTestProperties;
 import com.qrroad.oqms.tcp.test.handler.MessageHandler;
-import lombok.RequiredArgsConstructor;
+import com.qrroad.oqms.tcp.test.iso.IsoMessageView;
+import com.qrroad.oqms.tcp.test.iso.IsoMessageWriter;
+import com.qrroad.oqms.tcp.test.tls.TlsSupport;
+import com.qrroad.oqms.tcp.test.trace.MessagePhase;
+import com.qrroad.oqms.tcp.test.trace.MessageTrace;
+import com.qrroad.oqms.tcp.test.transport.BufferedFrameInputStream;
+import com.qrroad.oqms.tcp.test.transport.Connection;
+import com.qrroad.oqms.tcp.test.transport.TcpConnection;
+import com.qrroad.oqms.tcp.test.transport.TransportStats;
 import lombok.extern.slf4j.Slf4j;
 import org.jpos.iso.ISOMsg;
-import org.jpos.iso.ISOPackager;
 
 import java.io.*;
-import java.net.Socket;
 
 @Slf4j
-@RequiredArgsConstructor
 public class ClientHandler implements Runnable {
 
-    private final Socket clientSocket;
-    private final ISOPackager packager;
+    private static final int MAX_MESSAGE_LENGTH = 8192;
+
+    private final Connection connection;
+    private final ReloadableConfig config;
     private final MessageHandler messageHandler;
+    private final TlsSupport tlsSupport;
+    private final TransportStats.Side transportStats;
     private final TcpTestProperties properties;
+    private final IsoMessageWriter messageWriter;
+
+    public ClientHandler(Connection connection, ReloadableConfig config, MessageHandler messageHandler,
+                         TlsSupport tlsSupport, TransportStats transportStats, TcpTestProperties properties) {
+        this.connection = connection;
+        this.config = config;
+        this.messageHandler = messageHandler;
+        this.tlsSupport = tlsSupport;
+        this.transportStats = transportStats.server();
+        this.properties = properties;
+        this.messageWriter = new IsoMessageWriter(1024);
+    }
 
     @Override
     public void run() {
-        String clientInfo = clientSocket.getRemoteSocketAddress().toString();
+        String clientInfo = connection.getRemoteDescription();
         log.info("Client handler started for: {}", clientInfo);
 
-        try (InputStream inputStream = clientSocket.getInputStream();
-             OutputStream outputStream = clientSocket.getOutputStream()) {
+        try {
+            // TLS 핸드셰이크는 accept 스레드가 아닌 워커 스레드에서 수행 (Unix 도메인 소켓은 평문)
+            if (connection instanceof TcpConnection tcpConnection) {
+                tlsSupport.handshakeAccepted(tcpConnection.getSocket());
+            }
+        } catch (IOException e) {
+            log.error("TLS handshake failed for client: {}", clientInfo, e);
+            closeQuietly(clientInfo);
+            return;
+        }
 
-            while (!clientSocket.isClosed()) {
+        // 단계별 JFR 이벤트 (레코딩이 꺼져 있으면 기록하지 않음)
+        MessageTrace trace = new MessageTrace(clientInfo);
+
+        // 버퍼 아래에서 시스템 콜 수를 세고, 헤더와 본문은 버퍼에 모아 한 번에 쓴다
+        TcpTestProperties.Server serverConfig = properties.getServer();
+        int bufferSize = serverConfig.getIoBufferSize();
+
+        try (BufferedFrameInputStream inputStream = new BufferedFrameInputStream(
+                transportStats.count(connection.getInputStream()), bufferSize);
+             OutputStream outputStream = new BufferedOutputStream(
+                     transportStats.count(connection.getOutputStream()), bufferSize)) {
+
+            while (!connection.isClosed()) {
                 try {
-                    // 메시지 수신
-                    ISOMsg receivedMsg = receiveMessage(inputStream);
-                    if (receivedMsg == null) {
+                    // 메시지 수신 (프레임마다 최신 설정 스냅샷을 한 번 읽어 끝까지 사용)
+                    byte[] frame = receiveFrame(inputStream, trace);
+                    if (frame == null) {
                         break;
                     }
+                    trace.next(MessagePhase.UNPACK);
+                    ConfigSnapshot snapshot = config.current();
+                    IsoMessageView receivedMsg = IsoMessageView.wrap(frame, snapshot.layout());
+                    String mti = receivedMsg.getMTI();
+                    String stan = receivedMsg.getString(11);
 
-                    log.info("Received message from {}: MTI={}, STAN={}",
-                            clientInfo, receivedMsg.getMTI(), receivedMsg.getString(11));
+                    log.info("Received message from {}: MTI={}, STAN={}", clientInfo, mti, stan);
 
                     // 메시지 처리
-                    ISOMsg responseMsg = messageHandler.processMessage(receivedMsg);
+                    trace.next(MessagePhase.PROCESS);
+                    ISOMsg responseMsg = messageHandler.processMessage(receivedMsg, snapshot.simulator());
 
                     // 응답 전송
                     if (responseMsg != null) {
-                        sendMessage(outputStream, responseMsg);
+                        trace.next(MessagePhase.PACK);
+                        int length = messageWriter.pack(responseMsg, snapshot.layout());
+                        trace.next(MessagePhase.WRITE);
+                        sendMessage(outputStream, length);
+                    }
+                    // 다음 요청 프레임 전체가 이미 버퍼에 있으면 flush 를 미뤄 응답을 모아 보낸다 (버퍼가 차면 자동 flush)
+                    // 프레임 일부만 있으면 나머지를 기다리는 동안 응답이 묶이지 않도록 바로 flush 한다
+                    if (!serverConfig.isWriteCoalescing()
+                            || !inputStream.hasBufferedFrame(serverConfig.getMessageHeaderLength())) {
+                        outputStream.flush();
+                    }
+                    trace.commit(mti, stan);
+
+                    if (responseMsg != null) {
                         log.info("Sent response to {}: MTI={}, STAN={}",
                                 clientInfo, responseMsg.getMTI(), responseMsg.getString(11));
                     }
@@ -57,49 +118,50 @@ public class ClientHandler implements Runnable {
         } catch (IOException e) {
             log.error("Error handling client: {}", clientInfo, e);
         } finally {
-            try {
-                clientSocket.close();
-                log.info("Client connection closed: {}", clientInfo);
-            } catch (IOException e) {
-                log.warn("Error closing client socket: {}", clientInfo, e);
-            }
+            closeQuietly(clientInfo);
         }
     }
 
-    private ISOMsg receiveMessage(InputStream inputStream) throws Exception {
+    private void closeQuietly(String clientInfo) {
+        try {
+            connection.close();
+            log.info("Client connection closed: {}", clientInfo);
+        } catch (IOException e) {
+            log.warn("Error closing client socket: {}", clientInfo, e);
+        }
+    }
+
+    private byte[] receiveFrame(InputStream inputStream, MessageTrace trace) throws Exception {
         // 길이 헤더 읽기
         int headerLength = properties.getServer().getMessageHeaderLength();
         byte[] lengthHeader = new byte[headerLength];
 
         int read = inputStream.read(lengthHeader);
-        if (read != headerLength) {
+        if (read == -1) {
             return null; // 연결 종료
         }
+        readFully(inputStream, lengthHeader, read);
+        // 다음 메시지를 기다리는 유휴 시간은 제외하고 헤더 수신 이후부터 측정
+        trace.start(MessagePhase.READ);
 
         int messageLength = parseMessageLength(lengthHeader);
-        if (messageLength <= 0 || messageLength > 8192) {
+        if (messageLength <= 0 || messageLength > MAX_MESSAGE_LENGTH) {
             throw new IOException("Invalid message length: " + messageLength);
         }
 
         // 메시지 본문 읽기
         byte[] messageBytes = new byte[messageLength];
-        readFully(inputStream, messageBytes);
-
-        // ISO8583 메시지 언팩
-        ISOMsg msg = new ISOMsg();
-        msg.setPackager(packager);
-        msg.unpack(messageBytes);
+        readFully(inputStream, messageBytes, 0);
+        transportStats.onMessage();
 
-        return msg;
+        return messageBytes;
     }
 
-    private void sendMessage(OutputStream outputStream, ISOMsg msg) throws Exception {
-        byte[] msgBytes = msg.pack();
-        byte[] lengthHeader = createLengthHeader(msgBytes.length);
+    private void sendMessage(OutputStream outputStream, int length) throws IOException {
+        byte[] lengthHeader = createLengthHeader(length);
 
         outputStream.write(lengthHeader);
-        outputStream.write(msgBytes);
-        outputStream.flush();
+        outputStream.write(messageWriter.getBuffer(), 0, length);
     }
 
     private int parseMessageLength(byte[] header) {
@@ -127,8 +189,8 @@ public class ClientHandler implements Runnable {
         }
     }
 
-    private void readFully(InputStream inputStream, byte[] buffer) throws IOException {
-        int totalRead = 0;
+    private void readFully(InputStream inputStream, byte[] buffer, int offset) throws IOException {
+        int totalRead = offset;
         while (totalRead < buffer.length) {
             int read = inputStream.read(buffer, totalRead, buffer.length - totalRead);
             if (read == -1) {
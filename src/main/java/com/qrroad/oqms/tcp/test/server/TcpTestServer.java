@@ -1,19 +1,31 @@
 package com.qrroad.oqms.tcp.test.server;
 
+import com.qrroad.oqms.tcp.test.config.ReloadableConfig;
 import com.qrroad.oqms.tcp.test.config.TcpTestProperties;
 import com.qrroad.oqms.tcp.test.handler.MessageHandler;
+import com.qrroad.oqms.tcp.test.tls.TlsSupport;
+import com.qrroad.oqms.tcp.test.transport.SocketTuning;
+import com.qrroad.oqms.tcp.test.transport.TcpConnection;
+import com.qrroad.oqms.tcp.test.transport.TransportStats;
+import com.qrroad.oqms.tcp.test.transport.UnixConnection;
 import jakarta.annotation.PreDestroy;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.jpos.iso.ISOPackager;
 import org.springframework.boot.context.event.ApplicationReadyEvent;
 import org.springframework.context.event.EventListener;
 import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Component;
 
 import java.io.IOException;
+import java.net.InetSocketAddress;
 import java.net.ServerSocket;
 import java.net.Socket;
+import java.net.StandardProtocolFamily;
+import java.net.UnixDomainSocketAddress;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.atomic.AtomicBoolean;
@@ -24,10 +36,13 @@ import java.util.concurrent.atomic.AtomicBoolean;
 public class TcpTestServer {
 
     private final TcpTestProperties properties;
-    private final ISOPackager packager;
+    private final ReloadableConfig config;
     private final MessageHandler messageHandler;
+    private final TlsSupport tlsSupport;
+    private final TransportStats transportStats;
 
     private ServerSocket serverSocket;
+    private ServerSocketChannel unixServerChannel;
     private ExecutorService executorService;
     private final AtomicBoolean running = new AtomicBoolean(false);
 
@@ -47,8 +62,16 @@ public class TcpTestServer {
 
         try {
             TcpTestProperties.Server serverConfig = properties.getServer();
-            serverSocket = new ServerSocket(serverConfig.getPort(),
-                    serverConfig.getBacklog());
+            serverSocket = tlsSupport.createServerSocket();
+            SocketTuning.apply(serverSocket, serverConfig.getSocket());
+            serverSocket.bind(new InetSocketAddress(serverConfig.getPort()), serverConfig.getBacklog());
+
+            // 두 리스너 모두 bind 에 성공한 뒤에만 실행 상태로 전환
+            String unixSocketPath = serverConfig.getUnixSocketPath();
+            Path unixPath = unixSocketPath != null && !unixSocketPath.isBlank() ? Path.of(unixSocketPath) : null;
+            if (unixPath != null) {
+                bindUnixListener(unixPath, serverConfig.getBacklog());
+            }
 
             executorService = Executors.newCachedThreadPool(r -> {
                 Thread t = new Thread(r, "tcp-test-server-worker");
@@ -58,17 +81,22 @@ public class TcpTestServer {
 
             running.set(true);
 
-            log.info("TCP Test Server started on {}:{}",
-                    serverConfig.getHost(), serverConfig.getPort());
+            log.info("TCP Test Server started on {}:{} (tls={})",
+                    serverConfig.getHost(), serverConfig.getPort(), tlsSupport.isServerEnabled());
+
+            if (unixPath != null) {
+                startUnixAcceptor(unixPath);
+            }
 
             while (running.get() && !serverSocket.isClosed()) {
                 try {
                     Socket clientSocket = serverSocket.accept();
+                    SocketTuning.apply(clientSocket, serverConfig.getSocket());
                     log.info("New client connected: {}",
                             clientSocket.getRemoteSocketAddress());
 
                     executorService.submit(new ClientHandler(
-                            clientSocket, packager, messageHandler, properties));
+                            new TcpConnection(clientSocket), config, messageHandler, tlsSupport, transportStats, properties));
 
                 } catch (IOException e) {
                     if (running.get()) {
@@ -79,6 +107,12 @@ public class TcpTestServer {
 
         } catch (IOException e) {
             log.error("Failed to start TCP Test Server", e);
+            // 일부만 bind 된 리스너를 닫아 포트/소켓 파일을 반환하고 중지 상태로 되돌린다
+            running.set(false);
+            closeListeners();
+            if (executorService != null) {
+                executorService.shutdown();
+            }
         }
     }
 
@@ -87,6 +121,16 @@ public class TcpTestServer {
         log.info("Stopping TCP Test Server...");
         running.set(false);
 
+        closeListeners();
+
+        if (executorService != null) {
+            executorService.shutdown();
+        }
+
+        log.info("TCP Test Server stopped");
+    }
+
+    private void closeListeners() {
         if (serverSocket != null && !serverSocket.isClosed()) {
             try {
                 serverSocket.close();
@@ -95,14 +139,57 @@ public class TcpTestServer {
             }
         }
 
-        if (executorService != null) {
-            executorService.shutdown();
+        if (unixServerChannel != null && unixServerChannel.isOpen()) {
+            try {
+                unixServerChannel.close();
+                Files.deleteIfExists(Path.of(properties.getServer().getUnixSocketPath()));
+            } catch (IOException e) {
+                log.warn("Error closing unix domain socket", e);
+            }
         }
+    }
 
-        log.info("TCP Test Server stopped");
+    /**
+     * 같은 호스트의 클라이언트용 Unix 도메인 소켓 리스너. 프레이밍과 처리는 TCP 연결과 동일하다.
+     */
+    private void bindUnixListener(Path path, int backlog) throws IOException {
+        // 이전 실행이 남긴 소켓 파일 제거
+        Files.deleteIfExists(path);
+        unixServerChannel = ServerSocketChannel.open(StandardProtocolFamily.UNIX);
+        unixServerChannel.bind(UnixDomainSocketAddress.of(path), backlog);
+    }
+
+    private void startUnixAcceptor(Path path) {
+        Thread acceptThread = new Thread(() -> acceptUnix(path.toString()), "tcp-test-server-unix-accept");
+        acceptThread.setDaemon(true);
+        acceptThread.start();
+
+        log.info("TCP Test Server listening on unix:{}", path);
+    }
+
+    private void acceptUnix(String path) {
+        while (running.get() && unixServerChannel.isOpen()) {
+            try {
+                SocketChannel channel = unixServerChannel.accept();
+                log.info("New client connected: unix:{}", path);
+
+                executorService.submit(new ClientHandler(
+                        new UnixConnection(channel, path), config, messageHandler, tlsSupport,
+                        transportStats, properties));
+
+            } catch (IOException e) {
+                if (running.get()) {
+                    log.error("Error accepting unix domain socket connection", e);
+                }
+            }
+        }
     }
 
     public boolean isRunning() {
         return running.get();
     }
+
+    public boolean isTlsEnabled() {
+        return tlsSupport.isServerEnabled();
+    }
 }
@@ -0,0 +1,225 @@
+package com.qrroad.oqms.tcp.test.settlement;
+
+import com.qrroad.oqms.tcp.test.config.TcpTestProperties;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * 기록된 거래 파일({@link SettlementJournal} 형식 CSV)을 병렬 스트림으로 집계하고 현재 누적 합계와 대사한다.
+ *
+ * <p>{@link Files#lines}는 파일을 구간으로 나눠 공용 ForkJoinPool 워커가 나눠 읽을 수 있게 하며,
+ * 워커마다 자기 집계 맵에 더한 뒤 마지막에 합친다(공유 상태 없음).
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ReconciliationReport {
+
+    private static final int APPROVAL_COUNT = 0;
+    private static final int APPROVAL_AMOUNT = 1;
+    private static final int REVERSAL_COUNT = 2;
+    private static final int REVERSAL_AMOUNT = 3;
+
+    private final SettlementTotals settlementTotals;
+    private final TcpTestProperties properties;
+
+    /**
+     * @param file 저널 디렉터리 기준 파일명 (회전된 저널이나 그 디렉터리에 둔 호스트 거래 파일).
+     *             지정하지 않으면 설정된 저널 파일
+     * @throws IllegalArgumentException 저널이 설정되지 않았거나 파일이 저널 디렉터리 밖이거나 읽을 수 없는 경우
+     */
+    public Map<String, Object> build(String file) throws IOException {
+        Path path = resolve(file);
+
+        // 저널을 입력으로 쓰는 경우 버퍼에 남은 거래까지 포함
+        settlementTotals.flushJournal();
+
+        long startNanos = System.nanoTime();
+        Aggregate recorded;
+        try (Stream<String> lines = Files.lines(path, StandardCharsets.UTF_8)) {
+            recorded = lines.parallel().collect(Aggregate::new, Aggregate::accept, Aggregate::combine);
+        }
+        long aggregateNanos = System.nanoTime() - startNanos;
+
+        int maxDiscrepancies = properties.getSettlement().getMaxDiscrepancies();
+        List<Map<String, Object>> discrepancies = new ArrayList<>();
+        Map<String, Object> terminals = compare("terminal", recorded.terminals,
+                settlementTotals.getTerminals(), discrepancies, maxDiscrepancies);
+        Map<String, Object> merchants = compare("merchant", recorded.merchants,
+                settlementTotals.getMerchants(), discrepancies, maxDiscrepancies);
+
+        Totals recordedTotal = toTotals(recorded.total);
+        Totals liveTotal = settlementTotals.getTotal();
+        long elapsedNanos = System.nanoTime() - startNanos;
+
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("file", path.toString());
+        report.put("lines", recorded.lines);
+        report.put("invalidLines", recorded.invalid);
+        report.put("parallelism", ForkJoinPool.getCommonPoolParallelism());
+        report.put("aggregateMs", aggregateNanos / 1_000_000);
+        report.put("elapsedMs", elapsedNanos / 1_000_000);
+        report.put("linesPerSecond", aggregateNanos > 0 ? recorded.lines * 1_000_000_000L / aggregateNanos : 0);
+        report.put("liveSince", settlementTotals.getSince().toString());
+        report.put("inBalance", recordedTotal.equals(liveTotal)
+                && (int) terminals.get("mismatched") == 0 && (int) merchants.get("mismatched") == 0);
+        report.put("recorded", recordedTotal.toMap());
+        report.put("live", liveTotal.toMap());
+        report.put("terminals", terminals);
+        report.put("merchants", merchants);
+        report.put("discrepancies", discrepancies);
+
+        log.info("Reconciliation report for {}: {} lines in {}ms, inBalance={}",
+                path, recorded.lines, elapsedNanos / 1_000_000, report.get("inBalance"));
+        return report;
+    }
+
+    /**
+     * 요청 본문의 파일명은 저널 디렉터리 안으로만 풀어, REST 로 서버의 임의 파일을 읽지 못하게 한다.
+     * {@code ..}나 절대 경로, 디렉터리 밖을 가리키는 심볼릭 링크는 거절한다.
+     */
+    private Path resolve(String file) throws IOException {
+        Path journal = settlementTotals.getJournalFile();
+        if (journal == null) {
+            throw new IllegalArgumentException("No settlement journal configured");
+        }
+        if (file == null || file.isBlank()) {
+            return journal;
+        }
+
+        Path directory = journal.toAbsolutePath().normalize().getParent();
+        Path path = directory.resolve(file).normalize();
+        if (!path.startsWith(directory) || path.equals(directory)) {
+            throw new IllegalArgumentException("Transaction file must be inside the journal directory: " + file);
+        }
+        if (!Files.isRegularFile(path) || !Files.isReadable(path)) {
+            throw new IllegalArgumentException("Transaction file is not readable: " + file);
+        }
+        if (!path.toRealPath().startsWith(directory.toRealPath())) {
+            throw new IllegalArgumentException("Transaction file must be inside the journal directory: " + file);
+        }
+        return path;
+    }
+
+    private Map<String, Object> compare(String scope, Map<String, long[]> recorded, Map<String, Totals> live,
+                                        List<Map<String, Object>> discrepancies, int maxDiscrepancies) {
+        TreeSet<String> ids = new TreeSet<>(recorded.keySet());
+        ids.addAll(live.keySet());
+
+        List<String> mismatched = ids.parallelStream()
+                .filter(id -> !toTotals(recorded.get(id)).equals(live.getOrDefault(id, Totals.ZERO)))
+                .sorted()
+                .collect(Collectors.toList());
+
+        for (String id : mismatched) {
+            if (discrepancies.size() >= maxDiscrepancies) {
+                break;
+            }
+            Map<String, Object> discrepancy = new LinkedHashMap<>();
+            discrepancy.put("scope", scope);
+            discrepancy.put("id", id);
+            discrepancy.put("recorded", toTotals(recorded.get(id)).toMap());
+            discrepancy.put("live", live.getOrDefault(id, Totals.ZERO).toMap());
+            discrepancies.add(discrepancy);
+        }
+
+        Map<String, Object> summary = new LinkedHashMap<>();
+        summary.put("count", ids.size());
+        summary.put("mismatched", mismatched.size());
+        return summary;
+    }
+
+    private static Totals toTotals(long[] values) {
+        if (values == null) {
+            return Totals.ZERO;
+        }
+        return new Totals(values[APPROVAL_COUNT], values[APPROVAL_AMOUNT],
+                values[REVERSAL_COUNT], values[REVERSAL_AMOUNT]);
+    }
+
+    /**
+     * 병렬 스트림 워커 하나가 맡은 구간의 집계. 워커 간에 공유하지 않으므로 동기화가 필요 없다.
+     */
+    private static final class Aggregate {
+        private final Map<String, long[]> terminals = new HashMap<>();
+        private final Map<String, long[]> merchants = new HashMap<>();
+        private final long[] total = new long[4];
+        private long lines;
+        private long invalid;
+
+        void accept(String line) {
+            if (line.isEmpty() || line.charAt(0) == '#') {
+                return;
+            }
+            lines++;
+
+            // type,terminalId,merchantId,amount,...
+            String[] columns = line.split(",", 5);
+            if (columns.length < 4) {
+                invalid++;
+                return;
+            }
+
+            int offset;
+            if (SettlementJournal.APPROVAL.equals(columns[0])) {
+                offset = APPROVAL_COUNT;
+            } else if (SettlementJournal.REVERSAL.equals(columns[0])) {
+                offset = REVERSAL_COUNT;
+            } else {
+                invalid++;
+                return;
+            }
+
+            long amount;
+            try {
+                amount = Long.parseLong(columns[3].trim());
+            } catch (NumberFormatException e) {
+                invalid++;
+                return;
+            }
+
+            add(total, offset, amount);
+            add(terminals.computeIfAbsent(SettlementTotals.key(columns[1]), k -> new long[4]), offset, amount);
+            add(merchants.computeIfAbsent(SettlementTotals.key(columns[2]), k -> new long[4]), offset, amount);
+        }
+
+        void combine(Aggregate other) {
+            lines += other.lines;
+            invalid += other.invalid;
+            for (int i = 0; i < total.length; i++) {
+                total[i] += other.total[i];
+            }
+            merge(terminals, other.terminals);
+            merge(merchants, other.merchants);
+        }
+
+        private static void add(long[] values, int offset, long amount) {
+            values[offset]++;
+            values[offset + 1] += amount;
+        }
+
+        private static void merge(Map<String, long[]> target, Map<String, long[]> source) {
+            source.forEach((key, values) -> target.merge(key, values, (a, b) -> {
+                for (int i = 0; i < a.length; i++) {
+                    a[i] += b[i];
+                }
+                return a;
+            }));
+        }
+    }
+}
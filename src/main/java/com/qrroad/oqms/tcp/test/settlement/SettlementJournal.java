@@ -0,0 +1,231 @@
+package com.qrroad.oqms.tcp.test.settlement;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * 승인/취소 거래를 한 줄씩 기록하는 CSV 저널. {@link ReconciliationReport}의 입력 형식과 같다.
+ *
+ * <pre>type,terminalId,merchantId,amount,stan,rrn,epochMillis</pre>
+ * type 은 {@code APPROVAL} 또는 {@code REVERSAL}.
+ *
+ * <p>연결 워커는 완성된 줄을 제한된 대기열에 넣기만 하고, 파일 쓰기는 전용 스레드 하나가 모아서 한다.
+ * 그래서 워커끼리는 파일 I/O 가 아니라 대기열에 넣는 짧은 구간에서만 만나고, 대기열이 가득 차면
+ * (디스크가 따라오지 못하면) 워커가 기다린다(거래를 버리지 않음). 파일은 대기열이 빌 때마다 OS 로 내보낸다.
+ * {@link #flush()}와 {@link #rotate()}는 같은 대기열로 전달되므로 그 앞에 넣은 줄까지 반영된 뒤에 끝난다.
+ */
+@Slf4j
+class SettlementJournal implements Closeable {
+
+    static final String APPROVAL = "APPROVAL";
+    static final String REVERSAL = "REVERSAL";
+    static final String HEADER = "# type,terminalId,merchantId,amount,stan,rrn,epochMillis";
+
+    private static final int BATCH_SIZE = 1024;
+
+    private final Path file;
+    // String(기록할 줄) 또는 Command
+    private final BlockingQueue<Object> queue;
+    private final Thread writerThread;
+    private volatile boolean closed;
+
+    // 기록 스레드 전용
+    private BufferedWriter writer;
+
+    private SettlementJournal(Path file, int queueCapacity) throws IOException {
+        this.file = file;
+        this.writer = openWriter(file);
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.writerThread = new Thread(this::run, "settlement-journal");
+        writerThread.setDaemon(true);
+        writerThread.start();
+    }
+
+    static SettlementJournal open(String file, int queueCapacity) throws IOException {
+        if (file == null || file.isBlank()) {
+            return null;
+        }
+        if (queueCapacity < 1) {
+            throw new IllegalArgumentException("journal-queue-capacity must be positive: " + queueCapacity);
+        }
+        Path path = Path.of(file);
+        if (path.getParent() != null) {
+            Files.createDirectories(path.getParent());
+        }
+        return new SettlementJournal(path, queueCapacity);
+    }
+
+    Path getFile() {
+        return file;
+    }
+
+    void append(String type, String terminalId, String merchantId, long amount,
+                String stan, String rrn) throws IOException {
+        if (closed) {
+            throw new IOException("Settlement journal is closed");
+        }
+        enqueue(type + ',' + terminalId + ',' + merchantId + ',' + amount + ','
+                + (stan != null ? stan : "") + ',' + (rrn != null ? rrn : "") + ',' + System.currentTimeMillis());
+    }
+
+    /**
+     * 현재 파일을 {@code <파일명>.<epochMillis>}로 옮기고 빈 파일에 이어서 기록한다.
+     *
+     * @return 옮겨진 파일 경로
+     */
+    Path rotate() throws IOException {
+        return submit(Action.ROTATE);
+    }
+
+    /**
+     * 호출 전에 넣은 줄까지 모두 파일에 쓴다.
+     */
+    void flush() throws IOException {
+        submit(Action.FLUSH);
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        submit(Action.CLOSE);
+        try {
+            writerThread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private Path submit(Action action) throws IOException {
+        if (closed && action != Action.CLOSE) {
+            throw new IOException("Settlement journal is closed");
+        }
+        Command command = new Command(action, new CompletableFuture<>());
+        enqueue(command);
+        try {
+            return command.done.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted waiting for settlement journal " + action);
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof IOException io ? io : new IOException(e.getCause());
+        }
+    }
+
+    private void enqueue(Object item) throws InterruptedIOException {
+        try {
+            queue.put(item);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted waiting for settlement journal queue");
+        }
+    }
+
+    private void run() {
+        List<Object> batch = new ArrayList<>(BATCH_SIZE);
+        while (true) {
+            try {
+                batch.add(queue.take());
+            } catch (InterruptedException e) {
+                log.warn("Settlement journal writer interrupted, stopping");
+                return;
+            }
+            queue.drainTo(batch, BATCH_SIZE - 1);
+            for (Object item : batch) {
+                if (item instanceof Command command) {
+                    if (!execute(command)) {
+                        return;
+                    }
+                } else {
+                    write((String) item);
+                }
+            }
+            batch.clear();
+            if (queue.isEmpty()) {
+                try {
+                    writer.flush();
+                } catch (IOException e) {
+                    log.warn("Failed to flush settlement journal", e);
+                }
+            }
+        }
+    }
+
+    private void write(String line) {
+        try {
+            writer.write(line);
+            writer.newLine();
+        } catch (IOException e) {
+            log.warn("Failed to write settlement journal", e);
+        }
+    }
+
+    /**
+     * @return 계속 기록하면 true, 닫혔으면 false
+     */
+    private boolean execute(Command command) {
+        try {
+            switch (command.action) {
+                case FLUSH -> {
+                    writer.flush();
+                    command.done.complete(null);
+                }
+                case ROTATE -> {
+                    writer.close();
+                    Path rotated = file.resolveSibling(file.getFileName() + "." + System.currentTimeMillis());
+                    try {
+                        Files.move(file, rotated);
+                    } finally {
+                        writer = openWriter(file); // 옮기기에 실패해도 기록은 계속
+                    }
+                    command.done.complete(rotated);
+                }
+                case CLOSE -> {
+                    writer.close();
+                    command.done.complete(null);
+                    return false;
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            command.done.completeExceptionally(e);
+            return command.action != Action.CLOSE;
+        }
+        return true;
+    }
+
+    private static BufferedWriter openWriter(Path file) throws IOException {
+        boolean empty = !Files.exists(file) || Files.size(file) == 0;
+        BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        if (empty) {
+            writer.write(HEADER);
+            writer.newLine();
+        }
+        return writer;
+    }
+
+    private enum Action {
+        FLUSH,
+        ROTATE,
+        CLOSE
+    }
+
+    private record Command(Action action, CompletableFuture<Path> done) {
+    }
+}
@@ -0,0 +1,207 @@
+package com.qrroad.oqms.tcp.test.settlement;
+
+import com.qrroad.oqms.tcp.test.config.TcpTestProperties;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 서버가 승인/취소한 거래의 정산 합계를 전체, 단말기별, 가맹점별로 누적한다.
+ *
+ * <p>합계는 {@link LongAdder}(셀 단위로 나뉜 카운터)에 더하므로 여러 연결 워커가 같은 단말기/가맹점에
+ * 동시에 기록해도 경합하지 않는다. 합계 조회는 각 값을 따로 합산하므로 기록 중인 거래에 대해서는
+ * 건수와 금액이 순간적으로 어긋날 수 있다.
+ */
+@Slf4j
+@Component
+public class SettlementTotals {
+
+    private static final String UNKNOWN = "-";
+
+    private final SettlementJournal journal;
+
+    // 초기화 시 통째로 교체 (기록 중인 워커가 비워지는 맵에 더해 유실되지 않도록)
+    private volatile Period period = new Period();
+
+    public SettlementTotals(TcpTestProperties properties) {
+        try {
+            this.journal = SettlementJournal.open(properties.getSettlement().getJournalFile(),
+                    properties.getSettlement().getJournalQueueCapacity());
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to open settlement journal", e);
+        }
+        if (journal != null) {
+            log.info("Settlement journal: {}", journal.getFile());
+        }
+    }
+
+    public void recordApproval(String terminalId, String merchantId, long amount, String stan, String rrn) {
+        String terminal = key(terminalId);
+        String merchant = key(merchantId);
+
+        Period current = period;
+        current.total.addApproval(amount);
+        accumulator(current.terminals, terminal).addApproval(amount);
+        accumulator(current.merchants, merchant).addApproval(amount);
+        journal(SettlementJournal.APPROVAL, terminal, merchant, amount, stan, rrn);
+    }
+
+    public void recordReversal(String terminalId, String merchantId, long amount, String stan, String rrn) {
+        String terminal = key(terminalId);
+        String merchant = key(merchantId);
+
+        Period current = period;
+        current.total.addReversal(amount);
+        accumulator(current.terminals, terminal).addReversal(amount);
+        accumulator(current.merchants, merchant).addReversal(amount);
+        journal(SettlementJournal.REVERSAL, terminal, merchant, amount, stan, rrn);
+    }
+
+    /**
+     * 승인된 원거래와 짝이 맞지 않은 취소(중복 취소, 거절/알 수 없는 원거래). 합계와 저널에는 반영하지 않는다.
+     */
+    public void recordUnmatchedReversal() {
+        period.unmatchedReversals.increment();
+    }
+
+    public long getUnmatchedReversals() {
+        return period.unmatchedReversals.sum();
+    }
+
+    public Totals getTotal() {
+        return period.total.snapshot();
+    }
+
+    public Totals getTerminal(String terminalId) {
+        Accumulator accumulator = period.terminals.get(key(terminalId));
+        return accumulator != null ? accumulator.snapshot() : Totals.ZERO;
+    }
+
+    public Totals getMerchant(String merchantId) {
+        Accumulator accumulator = period.merchants.get(key(merchantId));
+        return accumulator != null ? accumulator.snapshot() : Totals.ZERO;
+    }
+
+    public Map<String, Totals> getTerminals() {
+        return snapshot(period.terminals);
+    }
+
+    public Map<String, Totals> getMerchants() {
+        return snapshot(period.merchants);
+    }
+
+    public Instant getSince() {
+        return period.since;
+    }
+
+    public Path getJournalFile() {
+        return journal != null ? journal.getFile() : null;
+    }
+
+    /**
+     * 영업일 마감 등으로 합계를 0부터 다시 누적한다. 저널 파일은 {@code <파일명>.<epochMillis>}로 넘기고
+     * 새 파일에 기록해, 저널 기준 대사 리포트가 초기화 이후 거래만 비교하도록 한다.
+     * 초기화 순간에 처리 중이던 거래는 이전 기간의 합계에 반영될 수 있다.
+     */
+    public synchronized void reset() {
+        period = new Period();
+        if (journal != null) {
+            try {
+                Path rotated = journal.rotate();
+                log.info("Settlement journal rotated to {}", rotated);
+            } catch (IOException e) {
+                log.warn("Failed to rotate settlement journal", e);
+            }
+        }
+        log.info("Settlement totals reset");
+    }
+
+    public void flushJournal() throws IOException {
+        if (journal != null) {
+            journal.flush();
+        }
+    }
+
+    @PreDestroy
+    public void close() {
+        if (journal != null) {
+            try {
+                journal.close();
+            } catch (IOException e) {
+                log.warn("Error closing settlement journal", e);
+            }
+        }
+    }
+
+    static String key(String id) {
+        if (id == null) {
+            return UNKNOWN;
+        }
+        String trimmed = id.trim();
+        return trimmed.isEmpty() ? UNKNOWN : trimmed;
+    }
+
+    private void journal(String type, String terminal, String merchant, long amount, String stan, String rrn) {
+        if (journal == null) {
+            return;
+        }
+        try {
+            journal.append(type, terminal, merchant, amount, stan, rrn);
+        } catch (IOException e) {
+            log.warn("Failed to write settlement journal", e);
+        }
+    }
+
+    private static Accumulator accumulator(ConcurrentHashMap<String, Accumulator> map, String key) {
+        // 이미 있는 키는 잠금 없이 조회
+        Accumulator accumulator = map.get(key);
+        return accumulator != null ? accumulator : map.computeIfAbsent(key, k -> new Accumulator());
+    }
+
+    private static Map<String, Totals> snapshot(ConcurrentHashMap<String, Accumulator> map) {
+        Map<String, Totals> result = new TreeMap<>();
+        map.forEach((key, accumulator) -> result.put(key, accumulator.snapshot()));
+        return result;
+    }
+
+    /**
+     * 한 정산 기간(초기화 ~ 다음 초기화)의 합계.
+     */
+    private static final class Period {
+        private final Accumulator total = new Accumulator();
+        private final ConcurrentHashMap<String, Accumulator> terminals = new ConcurrentHashMap<>();
+        private final ConcurrentHashMap<String, Accumulator> merchants = new ConcurrentHashMap<>();
+        private final LongAdder unmatchedReversals = new LongAdder();
+        private final Instant since = Instant.now();
+    }
+
+    private static final class Accumulator {
+        private final LongAdder approvalCount = new LongAdder();
+        private final LongAdder approvalAmount = new LongAdder();
+        private final LongAdder reversalCount = new LongAdder();
+        private final LongAdder reversalAmount = new LongAdder();
+
+        void addApproval(long amount) {
+            approvalCount.increment();
+            approvalAmount.add(amount);
+        }
+
+        void addReversal(long amount) {
+            reversalCount.increment();
+            reversalAmount.add(amount);
+        }
+
+        Totals snapshot() {
+            return new Totals(approvalCount.sum(), approvalAmount.sum(), reversalCount.sum(), reversalAmount.sum());
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package com.qrroad.oqms.tcp.test.settlement;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 정산 합계 스냅샷 (승인/취소 건수와 금액).
+ */
+public record Totals(long approvalCount, long approvalAmount, long reversalCount, long reversalAmount) {
+
+    public static final Totals ZERO = new Totals(0, 0, 0, 0);
+
+    /**
+     * 순정산 금액 (승인 금액 - 취소 금액).
+     */
+    public long netAmount() {
+        return approvalAmount - reversalAmount;
+    }
+
+    public Map<String, Object> toMap() {
+        Map<String, Object> map = new LinkedHashMap<>();
+        map.put("approvalCount", approvalCount);
+        map.put("approvalAmount", approvalAmount);
+        map.put("reversalCount", reversalCount);
+        map.put("reversalAmount", reversalAmount);
+        map.put("netAmount", netAmount());
+        return map;
+    }
+}
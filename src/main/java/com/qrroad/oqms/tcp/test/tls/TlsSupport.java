@@ -0,0 +1,387 @@
+package com.qrroad.oqms.tcp.test.tls;
+
+import com.qrroad.oqms.tcp.test.config.TcpTestProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.util.ResourceUtils;
+
+import javax.net.ssl.KeyManager;
+import javax.net.ssl.KeyManagerFactory;
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.SSLEngine;
+import javax.net.ssl.SSLServerSocket;
+import javax.net.ssl.SSLSession;
+import javax.net.ssl.SSLSessionContext;
+import javax.net.ssl.SSLSocket;
+import javax.net.ssl.TrustManager;
+import javax.net.ssl.TrustManagerFactory;
+import javax.net.ssl.X509ExtendedKeyManager;
+import javax.net.ssl.X509ExtendedTrustManager;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.security.KeyStore;
+import java.security.Principal;
+import java.security.PrivateKey;
+import java.security.cert.CertificateException;
+import java.security.cert.X509Certificate;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 서버/클라이언트 TLS 설정(SSLContext)과 핸드셰이크 메트릭을 관리한다.
+ *
+ * <p>SSLContext 는 각 측에 하나씩만 만들어 재사용하므로 세션 캐시가 연결 간에 공유되고,
+ * 재접속하는 클라이언트는 세션 재개(TLS 1.2 세션 ID / TLS 1.3 PSK)로 전체 핸드셰이크를 생략한다.
+ * 재개 여부는 인증서 교환이 있었는지로 판별한다. 전체 핸드셰이크에서만 서버는 키 매니저로 인증서를 고르고
+ * 클라이언트는 트러스트 매니저로 인증서를 검증하므로, 두 매니저를 감싸 해당 소켓을 표시해 둔다.
+ * (TLS 1.3 재개는 세션 ID 와 세션 객체가 매번 새로 만들어지므로 세션 비교로는 구분할 수 없다.)
+ *
+ * <p>메트릭: {@code tcp.test.tls.handshakes{side,type=full|resumed}},
+ * {@code tcp.test.tls.handshake.duration{side,type}}, {@code tcp.test.tls.handshake.failures{side}}
+ */
+@Slf4j
+@Component
+public class TlsSupport {
+
+    private static final String SERVER = "server";
+    private static final String CLIENT = "client";
+
+    private final TcpTestProperties properties;
+
+    // 이번 핸드셰이크에서 인증서를 주고받은(= 전체 핸드셰이크) 소켓
+    private final Set<Socket> certificateExchanged = ConcurrentHashMap.newKeySet();
+
+    private final SSLContext serverContext;
+    private final SSLContext clientContext;
+    private final HandshakeMeters serverMeters;
+    private final HandshakeMeters clientMeters;
+
+    public TlsSupport(TcpTestProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.serverContext = createContext(properties.getServer().getTls(), SERVER);
+        this.clientContext = createContext(properties.getClient().getTls(), CLIENT);
+        this.serverMeters = serverContext != null ? new HandshakeMeters(meterRegistry, SERVER) : null;
+        this.clientMeters = clientContext != null ? new HandshakeMeters(meterRegistry, CLIENT) : null;
+    }
+
+    public boolean isServerEnabled() {
+        return serverContext != null;
+    }
+
+    public boolean isClientEnabled() {
+        return clientContext != null;
+    }
+
+    /**
+     * 바인딩되지 않은 서버 소켓을 만든다. 소켓 옵션을 적용한 뒤 호출자가 bind 한다.
+     */
+    public ServerSocket createServerSocket() throws IOException {
+        if (serverContext == null) {
+            return new ServerSocket();
+        }
+
+        TcpTestProperties.Tls tls = properties.getServer().getTls();
+        SSLServerSocket serverSocket = (SSLServerSocket) serverContext.getServerSocketFactory()
+                .createServerSocket();
+
+        if (!tls.getProtocols().isEmpty()) {
+            serverSocket.setEnabledProtocols(tls.getProtocols().toArray(new String[0]));
+        }
+        if (!tls.getCipherSuites().isEmpty()) {
+            serverSocket.setEnabledCipherSuites(tls.getCipherSuites().toArray(new String[0]));
+        }
+        serverSocket.setNeedClientAuth(tls.isClientAuth());
+
+        return serverSocket;
+    }
+
+    /**
+     * 서버에서 수락한 연결의 핸드셰이크를 명시적으로 수행한다(워커 스레드에서 호출).
+     * 평문 소켓이면 아무 일도 하지 않는다.
+     */
+    public void handshakeAccepted(Socket socket) throws IOException {
+        if (socket instanceof SSLSocket sslSocket) {
+            handshake(sslSocket, SERVER, serverMeters);
+        }
+    }
+
+    /**
+     * 연결된 평문 소켓 위에 TLS 를 얹고 핸드셰이크를 수행한다.
+     * host/port 는 클라이언트 세션 캐시 조회 키로 쓰인다.
+     */
+    public Socket wrapClientSocket(Socket socket, String host, int port) throws IOException {
+        if (clientContext == null) {
+            return socket;
+        }
+
+        TcpTestProperties.Tls tls = properties.getClient().getTls();
+        SSLSocket sslSocket = (SSLSocket) clientContext.getSocketFactory()
+                .createSocket(socket, host, port, true);
+
+        if (!tls.getProtocols().isEmpty()) {
+            sslSocket.setEnabledProtocols(tls.getProtocols().toArray(new String[0]));
+        }
+        if (!tls.getCipherSuites().isEmpty()) {
+            sslSocket.setEnabledCipherSuites(tls.getCipherSuites().toArray(new String[0]));
+        }
+
+        handshake(sslSocket, CLIENT, clientMeters);
+        return sslSocket;
+    }
+
+    private void handshake(SSLSocket socket, String side, HandshakeMeters meters) throws IOException {
+        long startNanos = System.nanoTime();
+        boolean full;
+
+        try {
+            socket.startHandshake();
+        } catch (IOException e) {
+            meters.failures.increment();
+            throw e;
+        } finally {
+            full = certificateExchanged.remove(socket);
+        }
+
+        long elapsedNanos = System.nanoTime() - startNanos;
+        if (full) {
+            meters.full.increment();
+            meters.fullDuration.record(elapsedNanos, TimeUnit.NANOSECONDS);
+        } else {
+            meters.resumed.increment();
+            meters.resumedDuration.record(elapsedNanos, TimeUnit.NANOSECONDS);
+        }
+
+        SSLSession session = socket.getSession();
+        log.debug("TLS {} handshake completed ({}): {} {}", side, full ? "full" : "resumed",
+                session.getProtocol(), session.getCipherSuite());
+    }
+
+    private SSLContext createContext(TcpTestProperties.Tls tls, String side) {
+        if (!tls.isEnabled()) {
+            return null;
+        }
+
+        try {
+            KeyManager[] keyManagers = null;
+            if (tls.getKeyStore() != null) {
+                KeyStore keyStore = loadKeyStore(tls.getKeyStore(), tls.getKeyStoreType(), tls.getKeyStorePassword());
+                KeyManagerFactory keyManagerFactory = KeyManagerFactory.getInstance(KeyManagerFactory.getDefaultAlgorithm());
+                keyManagerFactory.init(keyStore, toChars(tls.getKeyStorePassword()));
+                keyManagers = keyManagerFactory.getKeyManagers();
+            } else if (SERVER.equals(side)) {
+                throw new IllegalStateException("TLS is enabled on server but no key-store is configured");
+            }
+
+            // 트러스트 스토어가 없으면 JDK 기본 트러스트 스토어 (재개 판별을 위해 클라이언트는 항상 감싼다)
+            KeyStore trustStore = tls.getTrustStore() != null
+                    ? loadKeyStore(tls.getTrustStore(), tls.getTrustStoreType(), tls.getTrustStorePassword())
+                    : null;
+            TrustManagerFactory trustManagerFactory = TrustManagerFactory.getInstance(TrustManagerFactory.getDefaultAlgorithm());
+            trustManagerFactory.init(trustStore);
+            TrustManager[] trustManagers = trustManagerFactory.getTrustManagers();
+
+            if (SERVER.equals(side)) {
+                wrapKeyManagers(keyManagers);
+            } else {
+                wrapTrustManagers(trustManagers);
+            }
+
+            SSLContext context = SSLContext.getInstance("TLS");
+            context.init(keyManagers, trustManagers, null);
+
+            SSLSessionContext sessionContext = SERVER.equals(side)
+                    ? context.getServerSessionContext()
+                    : context.getClientSessionContext();
+            sessionContext.setSessionCacheSize(tls.getSessionCacheSize());
+            sessionContext.setSessionTimeout(tls.getSessionTimeoutSeconds());
+
+            log.info("TLS enabled for {}: protocols={}, cipherSuites={}", side,
+                    tls.getProtocols(), tls.getCipherSuites().isEmpty() ? "default" : tls.getCipherSuites());
+            return context;
+
+        } catch (Exception e) {
+            log.error("Failed to initialize TLS for {}", side, e);
+            throw new IllegalStateException("Failed to initialize TLS for " + side, e);
+        }
+    }
+
+    /**
+     * 서버 키 매니저가 인증서를 고를 때(전체 핸드셰이크) 소켓을 표시하도록 감싼다.
+     */
+    private void wrapKeyManagers(KeyManager[] keyManagers) {
+        for (int i = 0; i < keyManagers.length; i++) {
+            if (keyManagers[i] instanceof X509ExtendedKeyManager delegate) {
+                keyManagers[i] = new CertificateTrackingKeyManager(delegate, certificateExchanged);
+            }
+        }
+    }
+
+    /**
+     * 클라이언트 트러스트 매니저가 서버 인증서를 검증할 때(전체 핸드셰이크) 소켓을 표시하도록 감싼다.
+     */
+    private void wrapTrustManagers(TrustManager[] trustManagers) {
+        for (int i = 0; i < trustManagers.length; i++) {
+            if (trustManagers[i] instanceof X509ExtendedTrustManager delegate) {
+                trustManagers[i] = new CertificateTrackingTrustManager(delegate, certificateExchanged);
+            }
+        }
+    }
+
+    private KeyStore loadKeyStore(String location, String type, String password) throws Exception {
+        KeyStore keyStore = KeyStore.getInstance(type);
+        try (InputStream inputStream = ResourceUtils.getURL(location).openStream()) {
+            keyStore.load(inputStream, toChars(password));
+        }
+        return keyStore;
+    }
+
+    private char[] toChars(String password) {
+        return password != null ? password.toCharArray() : null;
+    }
+
+    /**
+     * 한 측(server/client)의 핸드셰이크 메트릭. 생성 시 한 번만 등록한다.
+     */
+    private static final class HandshakeMeters {
+        final Counter full;
+        final Counter resumed;
+        final Counter failures;
+        final Timer fullDuration;
+        final Timer resumedDuration;
+
+        HandshakeMeters(MeterRegistry registry, String side) {
+            this.full = handshakes(registry, side, "full");
+            this.resumed = handshakes(registry, side, "resumed");
+            this.failures = Counter.builder("tcp.test.tls.handshake.failures")
+                    .tag("side", side)
+                    .register(registry);
+            this.fullDuration = duration(registry, side, "full");
+            this.resumedDuration = duration(registry, side, "resumed");
+        }
+
+        private static Counter handshakes(MeterRegistry registry, String side, String type) {
+            return Counter.builder("tcp.test.tls.handshakes")
+                    .tag("side", side)
+                    .tag("type", type)
+                    .register(registry);
+        }
+
+        private static Timer duration(MeterRegistry registry, String side, String type) {
+            return Timer.builder("tcp.test.tls.handshake.duration")
+                    .tag("side", side)
+                    .tag("type", type)
+                    .register(registry);
+        }
+    }
+
+    private static final class CertificateTrackingKeyManager extends X509ExtendedKeyManager {
+        private final X509ExtendedKeyManager delegate;
+        private final Set<Socket> certificateExchanged;
+
+        CertificateTrackingKeyManager(X509ExtendedKeyManager delegate, Set<Socket> certificateExchanged) {
+            this.delegate = delegate;
+            this.certificateExchanged = certificateExchanged;
+        }
+
+        @Override
+        public String chooseServerAlias(String keyType, Principal[] issuers, Socket socket) {
+            if (socket != null) {
+                certificateExchanged.add(socket);
+            }
+            return delegate.chooseServerAlias(keyType, issuers, socket);
+        }
+
+        @Override
+        public String chooseEngineServerAlias(String keyType, Principal[] issuers, SSLEngine engine) {
+            return delegate.chooseEngineServerAlias(keyType, issuers, engine);
+        }
+
+        @Override
+        public String chooseClientAlias(String[] keyType, Principal[] issuers, Socket socket) {
+            return delegate.chooseClientAlias(keyType, issuers, socket);
+        }
+
+        @Override
+        public String chooseEngineClientAlias(String[] keyType, Principal[] issuers, SSLEngine engine) {
+            return delegate.chooseEngineClientAlias(keyType, issuers, engine);
+        }
+
+        @Override
+        public String[] getClientAliases(String keyType, Principal[] issuers) {
+            return delegate.getClientAliases(keyType, issuers);
+        }
+
+        @Override
+        public String[] getServerAliases(String keyType, Principal[] issuers) {
+            return delegate.getServerAliases(keyType, issuers);
+        }
+
+        @Override
+        public X509Certificate[] getCertificateChain(String alias) {
+            return delegate.getCertificateChain(alias);
+        }
+
+        @Override
+        public PrivateKey getPrivateKey(String alias) {
+            return delegate.getPrivateKey(alias);
+        }
+    }
+
+    private static final class CertificateTrackingTrustManager extends X509ExtendedTrustManager {
+        private final X509ExtendedTrustManager delegate;
+        private final Set<Socket> certificateExchanged;
+
+        CertificateTrackingTrustManager(X509ExtendedTrustManager delegate, Set<Socket> certificateExchanged) {
+            this.delegate = delegate;
+            this.certificateExchanged = certificateExchanged;
+        }
+
+        @Override
+        public void checkServerTrusted(X509Certificate[] chain, String authType, Socket socket)
+                throws CertificateException {
+            if (socket != null) {
+                certificateExchanged.add(socket);
+            }
+            delegate.checkServerTrusted(chain, authType, socket);
+        }
+
+        @Override
+        public void checkServerTrusted(X509Certificate[] chain, String authType, SSLEngine engine)
+                throws CertificateException {
+            delegate.checkServerTrusted(chain, authType, engine);
+        }
+
+        @Override
+        public void checkServerTrusted(X509Certificate[] chain, String authType) throws CertificateException {
+            delegate.checkServerTrusted(chain, authType);
+        }
+
+        @Override
+        public void checkClientTrusted(X509Certificate[] chain, String authType, Socket socket)
+                throws CertificateException {
+            delegate.checkClientTrusted(chain, authType, socket);
+        }
+
+        @Override
+        public void checkClientTrusted(X509Certificate[] chain, String authType, SSLEngine engine)
+                throws CertificateException {
+            delegate.checkClientTrusted(chain, authType, engine);
+        }
+
+        @Override
+        public void checkClientTrusted(X509Certificate[] chain, String authType) throws CertificateException {
+            delegate.checkClientTrusted(chain, authType);
+        }
+
+        @Override
+        public X509Certificate[] getAcceptedIssuers() {
+            return delegate.getAcceptedIssuers();
+        }
+    }
+}
@@ -0,0 +1,12 @@
+package com.qrroad.oqms.tcp.test.trace;
+
+/**
+ * 서버가 메시지 하나를 처리하는 단계.
+ */
+public enum MessagePhase {
+    READ,     // 길이 헤더 수신 이후 본문 수신 완료까지
+    UNPACK,   // MTI/비트맵 해석 (나머지 필드는 지연 해석되어 PROCESS 에 포함)
+    PROCESS,  // MessageHandler.processMessage
+    PACK,     // 응답 직렬화
+    WRITE     // 소켓 쓰기/flush
+}
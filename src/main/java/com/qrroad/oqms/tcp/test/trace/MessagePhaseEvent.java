@@ -0,0 +1,36 @@
+package com.qrroad.oqms.tcp.test.trace;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * 메시지 처리 단계 하나의 소요 시간을 기록하는 JFR 이벤트.
+ * 기본 비활성이며 {@link PhaseRecordingService} 또는 JFR 설정 파일로 켠다.
+ */
+@Name(MessagePhaseEvent.NAME)
+@Label("ISO8583 Message Phase")
+@Description("Duration of one processing phase of an ISO8583 message")
+@Category({"TCP Test", "Server"})
+@Enabled(false)
+@StackTrace(false)
+public class MessagePhaseEvent extends Event {
+
+    public static final String NAME = "com.qrroad.oqms.tcp.test.MessagePhase";
+
+    @Label("Phase")
+    String phase;
+
+    @Label("MTI")
+    String mti;
+
+    @Label("STAN")
+    String stan;
+
+    @Label("Connection")
+    String connection;
+}
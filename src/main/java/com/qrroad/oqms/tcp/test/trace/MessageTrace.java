@@ -0,0 +1,83 @@
+package com.qrroad.oqms.tcp.test.trace;
+
+import jdk.jfr.EventType;
+
+/**
+ * 연결 하나에서 메시지별 단계 이벤트({@link MessagePhaseEvent})를 이어서 기록한다.
+ *
+ * <p>MTI/STAN 은 언팩 이후에야 알 수 있으므로 단계마다 이벤트를 끝내 두었다가 {@link #commit}에서 한꺼번에 태깅한다.
+ * 이벤트가 꺼져 있으면 메시지당 활성 여부 확인 한 번만 하고 이벤트 객체도 만들지 않는다.
+ * 연결 전용 워커 스레드에서만 사용한다(스레드 안전하지 않음).
+ */
+public final class MessageTrace {
+
+    private static final EventType EVENT_TYPE = EventType.getEventType(MessagePhaseEvent.class);
+    private static final MessagePhase[] PHASES = MessagePhase.values();
+
+    private final String connection;
+    private final MessagePhaseEvent[] events = new MessagePhaseEvent[PHASES.length];
+    private boolean active;
+    private int current = -1;
+
+    public MessageTrace(String connection) {
+        this.connection = connection;
+    }
+
+    /**
+     * 새 메시지의 첫 단계를 시작한다. 이전 메시지에서 커밋되지 않은 이벤트는 버린다.
+     */
+    public void start(MessagePhase phase) {
+        active = EVENT_TYPE.isEnabled();
+        if (!active) {
+            return;
+        }
+        for (int i = 0; i < events.length; i++) {
+            events[i] = null;
+        }
+        current = -1;
+        next(phase);
+    }
+
+    /**
+     * 진행 중인 단계를 끝내고 다음 단계를 시작한다.
+     */
+    public void next(MessagePhase phase) {
+        if (!active) {
+            return;
+        }
+        endCurrent();
+        MessagePhaseEvent event = new MessagePhaseEvent();
+        event.begin();
+        events[phase.ordinal()] = event;
+        current = phase.ordinal();
+    }
+
+    /**
+     * 진행 중인 단계를 끝내고 기록된 단계 이벤트를 MTI/STAN/연결 정보와 함께 커밋한다.
+     */
+    public void commit(String mti, String stan) {
+        if (!active) {
+            return;
+        }
+        endCurrent();
+        for (int i = 0; i < events.length; i++) {
+            MessagePhaseEvent event = events[i];
+            if (event != null && event.shouldCommit()) {
+                event.phase = PHASES[i].name();
+                event.mti = mti;
+                event.stan = stan;
+                event.connection = connection;
+                event.commit();
+            }
+            events[i] = null;
+        }
+        active = false;
+    }
+
+    private void endCurrent() {
+        if (current >= 0) {
+            events[current].end();
+            current = -1;
+        }
+    }
+}
@@ -0,0 +1,245 @@
+package com.qrroad.oqms.tcp.test.trace;
+
+import jakarta.annotation.PreDestroy;
+import jdk.jfr.Recording;
+import jdk.jfr.RecordingState;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * {@link MessagePhaseEvent}만 켠 JFR 레코딩을 시작/중지하고 단계별 지연 분포를 요약한다.
+ *
+ * <p>요약은 레코딩을 .jfr 파일로 덤프한 뒤 다시 읽어 계산하며, 파일은 JMC 로도 열어볼 수 있도록 남겨 둔다.
+ * 레코딩 중에 요약을 요청하면 현재까지의 복사본으로 계산한다.
+ */
+@Slf4j
+@Component
+public class PhaseRecordingService {
+
+    private static final double[] PERCENTILES = {50.0, 90.0, 99.0, 99.9};
+
+    private Recording recording;
+    private Instant startedAt;
+    private Map<String, Object> lastSummary;
+
+    public synchronized Map<String, Object> start(Duration maxDuration) {
+        if (recording != null) {
+            throw new IllegalStateException("Phase recording is already running");
+        }
+
+        Recording newRecording = new Recording();
+        newRecording.setName("tcp-test-message-phases");
+        newRecording.enable(MessagePhaseEvent.class).withThreshold(Duration.ZERO).withoutStackTrace();
+        if (maxDuration != null) {
+            newRecording.setDuration(maxDuration);
+        }
+        newRecording.start();
+
+        recording = newRecording;
+        startedAt = Instant.now();
+        log.info("Phase recording started (maxDuration={})", maxDuration);
+
+        return getStatus();
+    }
+
+    public synchronized Map<String, Object> stop() throws IOException {
+        if (recording == null) {
+            throw new IllegalStateException("Phase recording is not running");
+        }
+
+        try {
+            // 최대 시간이 지나 이미 멈춘 레코딩은 그대로 덤프
+            if (recording.getState() == RecordingState.RUNNING) {
+                recording.stop();
+            }
+            Path file = Files.createTempFile("tcp-test-phases-", ".jfr");
+            recording.dump(file);
+            lastSummary = summarize(file, startedAt);
+            log.info("Phase recording stopped: {}", file);
+            return lastSummary;
+
+        } finally {
+            recording.close();
+            recording = null;
+        }
+    }
+
+    /**
+     * 레코딩 중이면 현재까지의 요약을, 아니면 마지막으로 중지한 레코딩의 요약을 반환한다.
+     */
+    public synchronized Map<String, Object> getSummary() throws IOException {
+        if (recording == null) {
+            return lastSummary;
+        }
+
+        Path file = Files.createTempFile("tcp-test-phases-", ".jfr");
+        try (Recording copy = recording.copy(true)) {
+            copy.dump(file);
+            return summarize(file, startedAt);
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    public synchronized Map<String, Object> getStatus() {
+        Map<String, Object> status = new LinkedHashMap<>();
+        status.put("recording", recording != null);
+        status.put("state", recording != null ? recording.getState().name() : null);
+        status.put("startedAt", startedAt != null ? startedAt.toString() : null);
+        return status;
+    }
+
+    @PreDestroy
+    public synchronized void shutdown() {
+        if (recording != null) {
+            recording.close();
+            recording = null;
+        }
+    }
+
+    private Map<String, Object> summarize(Path file, Instant startedAt) throws IOException {
+        // 단계별 / MTI×단계별 소요 시간(ns) 히스토그램
+        Map<MessagePhase, Histogram> byPhase = new EnumMap<>(MessagePhase.class);
+        Map<String, Map<MessagePhase, Histogram>> byMti = new TreeMap<>();
+
+        // 이벤트를 하나씩 읽어 누적 (메시지당 이벤트가 5개이므로 전체를 목록으로 올리지 않음)
+        try (RecordingFile recordingFile = new RecordingFile(file)) {
+            while (recordingFile.hasMoreEvents()) {
+                RecordedEvent event = recordingFile.readEvent();
+                if (!MessagePhaseEvent.NAME.equals(event.getEventType().getName())) {
+                    continue;
+                }
+                MessagePhase phase = MessagePhase.valueOf(event.getString("phase"));
+                long nanos = event.getDuration().toNanos();
+                String mti = event.getString("mti");
+
+                byPhase.computeIfAbsent(phase, p -> new Histogram()).add(nanos);
+                byMti.computeIfAbsent(mti != null ? mti : "unknown", m -> new EnumMap<>(MessagePhase.class))
+                        .computeIfAbsent(phase, p -> new Histogram()).add(nanos);
+            }
+        }
+
+        Map<String, Object> summary = new LinkedHashMap<>();
+        summary.put("file", file.toString());
+        summary.put("startedAt", startedAt.toString());
+        summary.put("phases", describe(byPhase));
+
+        Map<String, Object> mtiSummary = new LinkedHashMap<>();
+        byMti.forEach((mti, phases) -> mtiSummary.put(mti, describe(phases)));
+        summary.put("byMti", mtiSummary);
+
+        return summary;
+    }
+
+    private Map<String, Object> describe(Map<MessagePhase, Histogram> phases) {
+        long total = 0;
+        for (Histogram durations : phases.values()) {
+            total += durations.sum();
+        }
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        for (Map.Entry<MessagePhase, Histogram> entry : phases.entrySet()) {
+            Histogram histogram = entry.getValue();
+            long sum = histogram.sum();
+
+            Map<String, Object> stats = new LinkedHashMap<>();
+            stats.put("count", histogram.count());
+            stats.put("meanUs", micros(sum / (double) histogram.count()));
+            for (double percentile : PERCENTILES) {
+                stats.put("p" + formatPercentile(percentile) + "Us", micros(histogram.percentile(percentile)));
+            }
+            stats.put("maxUs", micros(histogram.max()));
+            stats.put("sharePercent", total > 0 ? Math.round(sum * 1000.0 / total) / 10.0 : 0.0);
+            result.put(entry.getKey().name(), stats);
+        }
+        return result;
+    }
+
+    private static double micros(double nanos) {
+        return Math.round(nanos / 100.0) / 10.0;
+    }
+
+    private static String formatPercentile(double percentile) {
+        return percentile == Math.rint(percentile)
+                ? String.valueOf((long) percentile)
+                : String.valueOf(percentile).replace(".", "");
+    }
+
+    /**
+     * 고정 크기 로그-선형 히스토그램. 2의 거듭제곱 구간마다 64칸으로 나눠 상대 오차 약 1.6% 이내로
+     * 백분위수를 계산하며, 기록 건수와 무관하게 약 30KB 를 사용한다.
+     */
+    private static final class Histogram {
+        private static final int SUB_BITS = 6;
+        private static final int SUB_COUNT = 1 << SUB_BITS;
+
+        private final long[] counts = new long[(64 - SUB_BITS) * SUB_COUNT];
+        private long count;
+        private long sum;
+        private long max;
+
+        void add(long value) {
+            long v = Math.max(0L, value);
+            counts[index(v)]++;
+            count++;
+            sum += v;
+            max = Math.max(max, v);
+        }
+
+        long count() {
+            return count;
+        }
+
+        long sum() {
+            return sum;
+        }
+
+        long max() {
+            return max;
+        }
+
+        /**
+         * 순위에 해당하는 칸의 상한값 (최댓값을 넘지 않음).
+         */
+        long percentile(double percentile) {
+            long rank = Math.max(1L, (long) Math.ceil(percentile / 100.0 * count));
+            long seen = 0;
+            for (int i = 0; i < counts.length; i++) {
+                seen += counts[i];
+                if (seen >= rank) {
+                    return Math.min(max, upperBound(i));
+                }
+            }
+            return max;
+        }
+
+        private static int index(long value) {
+            if (value < 2 * SUB_COUNT) {
+                return (int) value;
+            }
+            int shift = 63 - Long.numberOfLeadingZeros(value) - SUB_BITS; // value >>> shift 는 [64, 128)
+            return shift * SUB_COUNT + (int) (value >>> shift);
+        }
+
+        private static long upperBound(int index) {
+            if (index < 2 * SUB_COUNT) {
+                return index;
+            }
+            int shift = index / SUB_COUNT - 1;
+            long sub = index - (long) shift * SUB_COUNT;
+            return ((sub + 1) << shift) - 1;
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package com.qrroad.oqms.tcp.test.transport;
+
+import java.io.BufferedInputStream;
+import java.io.InputStream;
+
+/**
+ * 버퍼에 이미 읽혀 있는 바이트 수를 시스템 콜 없이 알려주는 {@link BufferedInputStream}.
+ * {@code available()}은 버퍼가 비어 있으면 소켓에 ioctl 을 호출하므로 쓰기 병합 판단에는 이 값을 쓴다.
+ */
+public class BufferedFrameInputStream extends BufferedInputStream {
+
+    public BufferedFrameInputStream(InputStream in, int size) {
+        super(in, size);
+    }
+
+    /**
+     * 하위 스트림을 건드리지 않고 버퍼에 남은 바이트 수.
+     */
+    public int buffered() {
+        return count - pos;
+    }
+
+    /**
+     * 길이 헤더(빅엔디언 {@code headerLength} 바이트)와 그 본문까지 완전한 프레임 하나가 버퍼에 있는지.
+     * 헤더를 소비하지 않고 버퍼에서 직접 읽으므로 시스템 콜이 없다. 프레임 일부만 있으면 false.
+     */
+    public boolean hasBufferedFrame(int headerLength) {
+        byte[] buffer = buf;
+        int available = count - pos;
+        if (buffer == null || available < headerLength) {
+            return false;
+        }
+
+        long length = 0;
+        for (int i = 0; i < headerLength; i++) {
+            length = (length << 8) | (buffer[pos + i] & 0xFF);
+        }
+        return length > 0 && length <= available - headerLength;
+    }
+}
@@ -0,0 +1,24 @@
+package com.qrroad.oqms.tcp.test.transport;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+/**
+ * 길이 헤더 프레임을 주고받는 연결. TCP 소켓({@link TcpConnection})과
+ * Unix 도메인 소켓 채널({@link UnixConnection})을 같은 방식으로 다루기 위한 추상화.
+ */
+public interface Connection extends Closeable {
+
+    InputStream getInputStream() throws IOException;
+
+    OutputStream getOutputStream() throws IOException;
+
+    boolean isClosed();
+
+    /**
+     * 로그용 상대편 주소.
+     */
+    String getRemoteDescription();
+}
@@ -0,0 +1,30 @@
+package com.qrroad.oqms.tcp.test.transport;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * 하위 스트림 read 호출 수를 {@link TransportStats.Side}에 기록한다.
+ */
+class CountingInputStream extends FilterInputStream {
+
+    private final TransportStats.Side stats;
+
+    CountingInputStream(InputStream in, TransportStats.Side stats) {
+        super(in);
+        this.stats = stats;
+    }
+
+    @Override
+    public int read() throws IOException {
+        stats.onRead();
+        return in.read();
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        stats.onRead();
+        return in.read(b, off, len);
+    }
+}
@@ -0,0 +1,30 @@
+package com.qrroad.oqms.tcp.test.transport;
+
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * 하위 스트림 write 호출 수를 {@link TransportStats.Side}에 기록한다.
+ */
+class CountingOutputStream extends FilterOutputStream {
+
+    private final TransportStats.Side stats;
+
+    CountingOutputStream(OutputStream out, TransportStats.Side stats) {
+        super(out);
+        this.stats = stats;
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        stats.onWrite();
+        out.write(b);
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        stats.onWrite();
+        out.write(b, off, len);
+    }
+}
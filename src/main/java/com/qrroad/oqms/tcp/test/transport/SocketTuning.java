@@ -0,0 +1,61 @@
+package com.qrroad.oqms.tcp.test.transport;
+
+import com.qrroad.oqms.tcp.test.config.TcpTestProperties;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.net.StandardSocketOptions;
+import java.nio.channels.SocketChannel;
+
+/**
+ * {@link TcpTestProperties.SocketOptions}를 소켓에 적용한다. 0 또는 음수 값은 OS 기본값을 유지한다.
+ */
+public final class SocketTuning {
+
+    private SocketTuning() {
+    }
+
+    /**
+     * 연결된(또는 connect 전) 소켓에 옵션을 적용한다.
+     * 수신 버퍼는 TCP 윈도우 협상에 반영되도록 connect 전에 호출해야 한다.
+     */
+    public static void apply(Socket socket, TcpTestProperties.SocketOptions options) throws SocketException {
+        socket.setTcpNoDelay(options.isTcpNoDelay());
+        if (options.getSendBufferSize() > 0) {
+            socket.setSendBufferSize(options.getSendBufferSize());
+        }
+        if (options.getReceiveBufferSize() > 0) {
+            socket.setReceiveBufferSize(options.getReceiveBufferSize());
+        }
+        if (options.getLingerSeconds() >= 0) {
+            socket.setSoLinger(true, options.getLingerSeconds());
+        }
+    }
+
+    /**
+     * 논블로킹 TCP 채널에 같은 옵션을 적용한다. connect 전에 호출해야 한다.
+     */
+    public static void apply(SocketChannel channel, TcpTestProperties.SocketOptions options) throws IOException {
+        channel.setOption(StandardSocketOptions.TCP_NODELAY, options.isTcpNoDelay());
+        if (options.getSendBufferSize() > 0) {
+            channel.setOption(StandardSocketOptions.SO_SNDBUF, options.getSendBufferSize());
+        }
+        if (options.getReceiveBufferSize() > 0) {
+            channel.setOption(StandardSocketOptions.SO_RCVBUF, options.getReceiveBufferSize());
+        }
+        if (options.getLingerSeconds() >= 0) {
+            channel.setOption(StandardSocketOptions.SO_LINGER, options.getLingerSeconds());
+        }
+    }
+
+    /**
+     * 수락되는 연결이 물려받는 수신 버퍼 크기를 bind 전에 설정한다.
+     */
+    public static void apply(ServerSocket serverSocket, TcpTestProperties.SocketOptions options) throws SocketException {
+        if (options.getReceiveBufferSize() > 0) {
+            serverSocket.setReceiveBufferSize(options.getReceiveBufferSize());
+        }
+    }
+}
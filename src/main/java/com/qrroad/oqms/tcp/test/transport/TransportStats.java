@@ -0,0 +1,105 @@
+package com.qrroad.oqms.tcp.test.transport;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 서버/클라이언트 소켓 스트림의 read/write 호출 수(= 시스템 콜 수)와 메시지 수를 집계한다.
+ * TLS 연결은 레코드 단위로 나뉘어 실제 시스템 콜이 더 많을 수 있다.
+ *
+ * <p>메트릭: {@code tcp.test.transport.syscalls{side,op=read|write}}, {@code tcp.test.transport.messages{side}}
+ */
+@Component
+public class TransportStats {
+
+    private final Side server = new Side();
+    private final Side client = new Side();
+
+    public TransportStats(MeterRegistry meterRegistry) {
+        server.register(meterRegistry, "server");
+        client.register(meterRegistry, "client");
+    }
+
+    public Side server() {
+        return server;
+    }
+
+    public Side client() {
+        return client;
+    }
+
+    public Map<String, Object> toMap() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("server", server.toMap());
+        stats.put("client", client.toMap());
+        return stats;
+    }
+
+    public static final class Side {
+        private final LongAdder reads = new LongAdder();
+        private final LongAdder writes = new LongAdder();
+        private final LongAdder messages = new LongAdder();
+
+        public void onRead() {
+            reads.increment();
+        }
+
+        public void onWrite() {
+            writes.increment();
+        }
+
+        public void onMessage() {
+            messages.increment();
+        }
+
+        public long getReads() {
+            return reads.sum();
+        }
+
+        public long getWrites() {
+            return writes.sum();
+        }
+
+        public long getMessages() {
+            return messages.sum();
+        }
+
+        /**
+         * 소켓 입력 스트림의 read 호출을 센다. 버퍼링 스트림 아래(소켓 쪽)에 둬야 시스템 콜 수와 일치한다.
+         */
+        public InputStream count(InputStream in) {
+            return new CountingInputStream(in, this);
+        }
+
+        public OutputStream count(OutputStream out) {
+            return new CountingOutputStream(out, this);
+        }
+
+        private void register(MeterRegistry meterRegistry, String side) {
+            FunctionCounter.builder("tcp.test.transport.syscalls", reads, LongAdder::sum)
+                    .tags("side", side, "op", "read").register(meterRegistry);
+            FunctionCounter.builder("tcp.test.transport.syscalls", writes, LongAdder::sum)
+                    .tags("side", side, "op", "write").register(meterRegistry);
+            FunctionCounter.builder("tcp.test.transport.messages", messages, LongAdder::sum)
+                    .tags("side", side).register(meterRegistry);
+        }
+
+        private Map<String, Object> toMap() {
+            long messageCount = getMessages();
+            Map<String, Object> stats = new LinkedHashMap<>();
+            stats.put("messages", messageCount);
+            stats.put("reads", getReads());
+            stats.put("writes", getWrites());
+            stats.put("readsPerMessage", messageCount == 0 ? 0.0 : (double) getReads() / messageCount);
+            stats.put("writesPerMessage", messageCount == 0 ? 0.0 : (double) getWrites() / messageCount);
+            return stats;
+        }
+    }
+}
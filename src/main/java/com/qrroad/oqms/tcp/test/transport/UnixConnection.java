@@ -0,0 +1,55 @@
+package com.qrroad.oqms.tcp.test.transport;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.UnixDomainSocketAddress;
+import java.nio.channels.Channels;
+import java.nio.channels.SocketChannel;
+
+/**
+ * Unix 도메인 소켓 채널 연결 (블로킹 모드).
+ *
+ * <p>채널 스트림은 SO_TIMEOUT 이 없으므로 읽기 제한 시간은 호출자가 채널을 닫아 처리한다.
+ * 입출력 스트림은 채널 잠금을 공유하므로 한 스레드에서 번갈아 읽고 써야 한다.
+ */
+public final class UnixConnection implements Connection {
+
+    private final SocketChannel channel;
+    private final String path;
+
+    public UnixConnection(SocketChannel channel, String path) {
+        this.channel = channel;
+        this.path = path;
+    }
+
+    public static UnixConnection connect(String path) throws IOException {
+        SocketChannel channel = SocketChannel.open(UnixDomainSocketAddress.of(path));
+        return new UnixConnection(channel, path);
+    }
+
+    @Override
+    public InputStream getInputStream() {
+        return Channels.newInputStream(channel);
+    }
+
+    @Override
+    public OutputStream getOutputStream() {
+        return Channels.newOutputStream(channel);
+    }
+
+    @Override
+    public boolean isClosed() {
+        return !channel.isOpen();
+    }
+
+    @Override
+    public String getRemoteDescription() {
+        return "unix:" + path;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
@@ -0,0 +1,186 @@
+package com.qrroad.oqms.tcp.test.client;
+
+import com.qrroad.oqms.tcp.test.config.TcpTestProperties;
+import com.qrroad.oqms.tcp.test.transport.TransportStats;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class NioFrameExchangerTest {
+
+    private ServerSocket server;
+    private NioFrameExchanger exchanger;
+
+    @AfterEach
+    void tearDown() throws IOException {
+        if (exchanger != null) {
+            exchanger.shutdown();
+        }
+        if (server != null) {
+            server.close();
+        }
+    }
+
+    @Test
+    void responseSplitAcrossSegmentsIsReassembled() throws Exception {
+        // 요청 본문을 그대로 돌려주되 헤더와 본문을 여러 조각으로 나눠 보낸다
+        start(2, body -> frame(2, body), true);
+
+        byte[] body = "0210HELLO".getBytes();
+        assertArrayEquals(body, exchange(2, body));
+    }
+
+    @Test
+    void fourByteHeader() throws Exception {
+        start(4, body -> frame(4, body), false);
+
+        byte[] body = new byte[8192];
+        body[8191] = 7;
+        assertArrayEquals(body, exchange(4, body));
+    }
+
+    @Test
+    void zeroLengthFailsOnlyThatExchange() throws Exception {
+        start(2, body -> body[0] == 'Z' ? new byte[]{0, 0} : frame(2, body), false);
+
+        ExecutionException error = assertThrows(ExecutionException.class, () -> exchange(2, "Z".getBytes()));
+        assertInstanceOf(IOException.class, error.getCause());
+        assertEquals("Invalid message length: 0", error.getCause().getMessage());
+
+        // 셀렉터는 그대로 동작한다
+        assertArrayEquals("OK".getBytes(), exchange(2, "OK".getBytes()));
+    }
+
+    @Test
+    void lengthAboveLimitIsRejectedBeforeAllocating() throws Exception {
+        start(4, body -> body[0] == 'N'
+                ? new byte[]{(byte) 0x80, 0, 0, 0}          // 음수
+                : new byte[]{0, 0, 0x20, 0x01}, false);     // 8193
+
+        ExecutionException tooLong = assertThrows(ExecutionException.class, () -> exchange(4, "X".getBytes()));
+        assertEquals("Invalid message length: 8193", tooLong.getCause().getMessage());
+        ExecutionException negative = assertThrows(ExecutionException.class, () -> exchange(4, "N".getBytes()));
+        assertEquals("Invalid message length: " + Integer.MIN_VALUE, negative.getCause().getMessage());
+    }
+
+    @Test
+    void truncatedBodyFailsWithEof() throws Exception {
+        start(2, body -> new byte[]{0, 10, 'a', 'b'}, false);
+
+        ExecutionException error = assertThrows(ExecutionException.class, () -> exchange(2, "X".getBytes()));
+        assertInstanceOf(EOFException.class, error.getCause());
+    }
+
+    @Test
+    void silentServerTimesOut() throws Exception {
+        start(2, body -> null, false);
+        exchanger.shutdown(); // 읽기 제한 시간을 줄여 다시 만든다
+        TcpTestProperties properties = properties(2);
+        properties.getClient().setReadTimeoutMs(200);
+        exchanger = new NioFrameExchanger(properties, new TransportStats(new SimpleMeterRegistry()));
+
+        ExecutionException error = assertThrows(ExecutionException.class, () -> exchange(2, "X".getBytes()));
+        assertInstanceOf(SocketTimeoutException.class, error.getCause());
+    }
+
+    private byte[] exchange(int headerLength, byte[] body) throws Exception {
+        CompletableFuture<byte[]> response = exchanger.exchange(
+                new ClientTarget("127.0.0.1", server.getLocalPort()), frame(headerLength, body));
+        return response.get(10, TimeUnit.SECONDS);
+    }
+
+    /**
+     * 요청 프레임을 하나 읽고 {@code reply}가 돌려준 바이트를 그대로 쓰는 서버. null 이면 응답하지 않는다.
+     */
+    private void start(int headerLength, Function<byte[], byte[]> reply, boolean fragmented) throws IOException {
+        server = new ServerSocket(0, 50, InetAddress.getLoopbackAddress());
+        exchanger = new NioFrameExchanger(properties(headerLength), new TransportStats(new SimpleMeterRegistry()));
+
+        Thread acceptor = new Thread(() -> {
+            while (!server.isClosed()) {
+                try {
+                    Socket socket = server.accept();
+                    Thread handler = new Thread(() -> serve(socket, headerLength, reply, fragmented));
+                    handler.setDaemon(true);
+                    handler.start();
+                } catch (IOException e) {
+                    return;
+                }
+            }
+        });
+        acceptor.setDaemon(true);
+        acceptor.start();
+    }
+
+    private static void serve(Socket socket, int headerLength, Function<byte[], byte[]> reply, boolean fragmented) {
+        try (socket) {
+            socket.setTcpNoDelay(true);
+            DataInputStream in = new DataInputStream(socket.getInputStream());
+            int length = headerLength == 2 ? in.readUnsignedShort() : in.readInt();
+            byte[] body = new byte[length];
+            in.readFully(body);
+
+            byte[] response = reply.apply(body);
+            if (response == null) {
+                drain(socket.getInputStream());
+                return;
+            }
+            OutputStream out = socket.getOutputStream();
+            if (fragmented) {
+                for (byte b : response) {
+                    out.write(b);
+                    out.flush();
+                    Thread.sleep(2);
+                }
+            } else {
+                out.write(response);
+                out.flush();
+            }
+            socket.shutdownOutput();
+            drain(socket.getInputStream());
+        } catch (IOException | InterruptedException e) {
+            // 클라이언트가 먼저 끊은 경우
+        }
+    }
+
+    private static void drain(InputStream in) throws IOException {
+        while (in.read() != -1) {
+            // 클라이언트가 연결을 닫을 때까지
+        }
+    }
+
+    private static byte[] frame(int headerLength, byte[] body) {
+        byte[] frame = new byte[headerLength + body.length];
+        int length = body.length;
+        for (int i = headerLength - 1; i >= 0; i--) {
+            frame[i] = (byte) length;
+            length >>>= 8;
+        }
+        System.arraycopy(body, 0, frame, headerLength, body.length);
+        return frame;
+    }
+
+    private static TcpTestProperties properties(int headerLength) {
+        TcpTestProperties properties = new TcpTestProperties();
+        properties.getClient().setMessageHeaderLength(headerLength);
+        properties.getClient().setConnectTimeoutMs(5000);
+        properties.getClient().setReadTimeoutMs(5000);
+        return properties;
+    }
+}
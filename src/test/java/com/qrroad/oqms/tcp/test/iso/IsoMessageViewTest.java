@@ -0,0 +1,155 @@
+package com.qrroad.oqms.tcp.test.iso;
+
+import org.jpos.iso.ISOException;
+import org.jpos.iso.ISOMsg;
+import org.jpos.iso.ISOPackager;
+import org.jpos.iso.ISOUtil;
+import org.jpos.iso.packager.GenericPackager;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.io.InputStream;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IsoMessageViewTest {
+
+    private static final int[] FIELDS = {2, 3, 4, 11, 37, 41, 43, 48, 90, 96, 102};
+
+    private static ISOPackager packager;
+    private static IsoFieldLayout layout;
+
+    @BeforeAll
+    static void loadPackager() throws Exception {
+        try (InputStream inputStream = IsoMessageViewTest.class.getResourceAsStream("/config/iso8583-test.xml")) {
+            GenericPackager genericPackager = new GenericPackager();
+            genericPackager.readFile(inputStream);
+            packager = genericPackager;
+        }
+        layout = IsoFieldLayout.of(packager);
+    }
+
+    @Test
+    void layoutSupportsTestPackager() {
+        assertTrue(layout.isSupported());
+    }
+
+    @Test
+    void getStringMatchesJposUnpackForUnpaddedFields() throws Exception {
+        byte[] frame = createRequest().pack();
+        IsoMessageView view = IsoMessageView.wrap(frame, layout);
+        ISOMsg unpacked = unpack(frame);
+
+        assertEquals("0200", view.getMTI());
+        for (int field : FIELDS) {
+            assertTrue(view.hasField(field), "field " + field);
+            if (!layout.isSpacePadded(field)) {
+                assertEquals(unpacked.getString(field), view.getString(field), "field " + field);
+            }
+        }
+        assertFalse(view.hasField(39));
+        assertNull(view.getString(39));
+    }
+
+    @Test
+    void getStringStripsCharPaddingButKeepsNumericZeros() throws Exception {
+        byte[] frame = createRequest().pack();
+        IsoMessageView view = IsoMessageView.wrap(frame, layout);
+
+        assertEquals("TERM01  ", unpack(frame).getString(41)); // jPOS 언팩은 패딩을 남김
+        assertEquals("TERM01", view.getString(41));
+        assertEquals("TEST MERCHANT", view.getString(43));
+        assertEquals("000000010000", view.getString(4));
+        assertEquals("0102030405060708", view.getString(96));
+    }
+
+    @Test
+    void fieldsCanBeReadOutOfOrder() throws Exception {
+        IsoMessageView view = IsoMessageView.wrap(createRequest().pack(), layout);
+
+        assertEquals("RRN000000001", view.getString(37));
+        assertEquals("4111111111111111", view.getString(2));
+        assertEquals("ACC-1", view.getString(102));
+        assertEquals("000001", view.getString(11));
+    }
+
+    @Test
+    void copiedFieldsReadTheSameAsTheView() throws Exception {
+        IsoMessageView view = IsoMessageView.wrap(createRequest().pack(), layout);
+        ISOMsg response = new ISOMsg("0210");
+        response.setPackager(packager);
+        for (int field : FIELDS) {
+            view.copyField(field, response);
+        }
+
+        for (int field : FIELDS) {
+            assertEquals(view.getString(field), response.getString(field), "field " + field);
+        }
+    }
+
+    @Test
+    void writerPacksCopiedFieldsLikeJpos() throws Exception {
+        ISOMsg request = createRequest();
+        IsoMessageView view = IsoMessageView.wrap(request.pack(), layout);
+
+        ISOMsg response = new ISOMsg("0210");
+        response.setPackager(packager);
+        for (int field : FIELDS) {
+            view.copyField(field, response);
+        }
+        response.set(38, "A1B2C3");
+        response.set(39, "00");
+
+        ISOMsg expected = (ISOMsg) request.clone();
+        expected.setMTI("0210");
+        expected.set(38, "A1B2C3");
+        expected.set(39, "00");
+
+        IsoMessageWriter writer = new IsoMessageWriter(16); // 버퍼 확장 경로도 거치도록 작게
+        int length = writer.pack(response, layout);
+
+        assertArrayEquals(expected.pack(), Arrays.copyOf(writer.getBuffer(), length));
+    }
+
+    @Test
+    void truncatedFrameIsRejected() throws Exception {
+        byte[] frame = createRequest().pack();
+        IsoMessageView view = IsoMessageView.wrap(Arrays.copyOf(frame, frame.length - 5), layout);
+
+        assertThrows(ISOException.class, () -> view.getString(102));
+    }
+
+    @Test
+    void toIsoMsgUnpacksOnce() throws Exception {
+        IsoMessageView view = IsoMessageView.wrap(createRequest().pack(), layout);
+
+        ISOMsg msg = view.toISOMsg();
+        assertSame(msg, view.toISOMsg());
+        assertEquals("4111111111111111", msg.getString(2));
+    }
+
+    private static ISOMsg createRequest() throws ISOException {
+        ISOMsg msg = new ISOMsg("0200");
+        msg.setPackager(packager);
+        msg.set(2, "4111111111111111");
+        msg.set(3, "000000");
+        msg.set(4, "000000010000");
+        msg.set(11, "000001");
+        msg.set(37, "RRN000000001");
+        msg.set(41, "TERM01");
+        msg.set(43, "TEST MERCHANT");
+        msg.set(48, "ADDITIONAL");
+        msg.set(90, "0200" + "000001" + ISOUtil.zeropad("", 32));
+        msg.set(96, ISOUtil.hex2byte("0102030405060708"));
+        msg.set(102, "ACC-1");
+        return msg;
+    }
+
+    private static ISOMsg unpack(byte[] frame) throws ISOException {
+        ISOMsg msg = new ISOMsg();
+        msg.setPackager(packager);
+        msg.unpack(frame);
+        return msg;
+    }
+}
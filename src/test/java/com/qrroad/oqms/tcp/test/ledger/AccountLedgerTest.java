@@ -0,0 +1,95 @@
+package com.qrroad.oqms.tcp.test.ledger;
+
+import com.qrroad.oqms.tcp.test.config.TcpTestProperties;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static com.qrroad.oqms.tcp.test.ledger.AccountLedger.DebitResult.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+class AccountLedgerTest {
+
+    private static final String PAN = "4000000000000001";
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void reversalRestoresDebitOnce() throws IOException {
+        AccountLedger ledger = ledger(PAN + ",1000");
+
+        assertEquals(APPROVED, ledger.debit(PAN, 300, "000001", "R1"));
+        assertEquals(700, ledger.getBalance(PAN).getAsLong());
+
+        assertTrue(ledger.reverse(PAN, "000001", "R1"));
+        assertEquals(1000, ledger.getBalance(PAN).getAsLong());
+
+        assertFalse(ledger.reverse(PAN, "000001", "R1")); // 중복 취소
+        assertEquals(1000, ledger.getBalance(PAN).getAsLong());
+    }
+
+    @Test
+    void unmatchedReversalsChangeNothing() throws IOException {
+        AccountLedger ledger = ledger(PAN + ",100");
+
+        assertEquals(INSUFFICIENT_FUNDS, ledger.debit(PAN, 300, "000001", "R1"));
+        assertEquals(UNKNOWN_ACCOUNT, ledger.debit("4999", 10, "000002", "R2"));
+        assertEquals(APPROVED, ledger.debit(PAN, 40, "000003", "R3"));
+
+        assertFalse(ledger.reverse(PAN, "000001", "R1"));     // 거절된 구매
+        assertFalse(ledger.reverse("4999", "000002", "R2"));  // 원장 밖 구매
+        assertFalse(ledger.reverse(PAN, "000003", "OTHER"));  // RRN 불일치
+        assertEquals(60, ledger.getBalance(PAN).getAsLong());
+    }
+
+    @Test
+    void debitBeforeReloadIsMatchedButNotCreditedToNewBalances() throws IOException {
+        AccountLedger ledger = ledger(PAN + ",1000");
+        assertEquals(APPROVED, ledger.debit(PAN, 300, "000001", "R1"));
+
+        ledger.reload();
+
+        assertEquals(1000, ledger.getBalance(PAN).getAsLong());
+        assertTrue(ledger.reverse(PAN, "000001", "R1"));
+        assertEquals(1000, ledger.getBalance(PAN).getAsLong());
+    }
+
+    @Test
+    void disabledLedgerHasNoAccounts() {
+        AccountLedger ledger = new AccountLedger(new TcpTestProperties());
+
+        assertFalse(ledger.isEnabled());
+        assertFalse(ledger.isDeclineUnknown());
+        assertEquals(UNKNOWN_ACCOUNT, ledger.debit(PAN, 1, "000001", "R1"));
+        assertFalse(ledger.reverse(PAN, "000001", "R1"));
+    }
+
+    @Test
+    void approvalsOutsideLedgerMatchReversalsWithoutCredit() throws IOException {
+        AccountLedger disabled = new AccountLedger(new TcpTestProperties());
+        disabled.recordApproval(PAN, "000001", "R1");
+
+        assertTrue(disabled.reverse(PAN, "000001", "R1"));
+        assertFalse(disabled.reverse(PAN, "000001", "R1"));
+
+        AccountLedger ledger = ledger(PAN + ",1000");
+        ledger.recordApproval("4999", "000002", "R2");
+
+        assertTrue(ledger.reverse("4999", "000002", "R2"));
+        assertEquals(1000, ledger.getBalance(PAN).getAsLong());
+    }
+
+    private AccountLedger ledger(String... lines) throws IOException {
+        Path seed = dir.resolve("accounts.csv");
+        Files.write(seed, List.of(lines));
+        TcpTestProperties properties = new TcpTestProperties();
+        properties.getLedger().setSeedFile(seed.toString());
+        properties.getLedger().setMaxPendingDebits(1_000);
+        return new AccountLedger(properties);
+    }
+}
@@ -0,0 +1,85 @@
+package com.qrroad.oqms.tcp.test.ledger;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AccountTableTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void leadingZerosAreDistinctAccounts() throws IOException {
+        AccountTable table = load("0012,100", "12,200", "000,300", "0,400");
+
+        assertEquals(100, table.balance(table.find("0012")));
+        assertEquals(200, table.balance(table.find("12")));
+        assertEquals(300, table.balance(table.find("000")));
+        assertEquals(400, table.balance(table.find("0")));
+        assertEquals(-1, table.find("012"));
+        assertEquals(-1, table.find("00"));
+    }
+
+    @Test
+    void keysAreNeverEmptySentinelAndDoNotCollideAcrossLengths() {
+        assertNotEquals(0L, AccountTable.toKey("0"));
+        assertNotEquals(0L, AccountTable.toKey("0000000000000000000"));
+        assertNotEquals(AccountTable.toKey("9"), AccountTable.toKey("00"));
+        assertNotEquals(AccountTable.toKey("9999999999999999999"), AccountTable.toKey("0000000000000000000"));
+        // 19자리 최대값도 부호 없는 long 범위 안에서 순서를 유지한다
+        assertTrue(Long.compareUnsigned(AccountTable.toKey("999999999999999999"),
+                AccountTable.toKey("0000000000000000000")) < 0);
+        assertTrue(Long.compareUnsigned(AccountTable.toKey("0000000000000000000"),
+                AccountTable.toKey("9999999999999999999")) < 0);
+    }
+
+    @Test
+    void invalidPansHaveNoKey() {
+        assertEquals(0L, AccountTable.toKey(null));
+        assertEquals(0L, AccountTable.toKey(""));
+        assertEquals(0L, AccountTable.toKey("40000000000000000001")); // 20자리
+        assertEquals(0L, AccountTable.toKey("4000-0000"));
+    }
+
+    @Test
+    void invalidLinesAreRejected() {
+        assertThrows(IOException.class, () -> load("4000x,100"));
+        assertThrows(IOException.class, () -> load("4000,abc"));
+        assertThrows(IOException.class, () -> load("4000,-1"));
+        assertThrows(IOException.class, () -> load("# only a comment", ""));
+    }
+
+    @Test
+    void debitStopsAtZeroAndCreditRestores() throws IOException {
+        AccountTable table = load("# comment", "4000000000000001,1000", "", "4000000000000002,5");
+        int slot = table.find("4000000000000001");
+
+        assertEquals(2, table.size());
+        assertTrue(table.debit(slot, 600));
+        assertFalse(table.debit(slot, 600));
+        assertTrue(table.debit(slot, 400));
+        assertEquals(0, table.balance(slot));
+        assertEquals(250, table.credit(slot, 250));
+        assertEquals(5, table.balance(table.find("4000000000000002")));
+    }
+
+    @Test
+    void duplicatePanKeepsLastBalance() throws IOException {
+        AccountTable table = load("4000,1", "4000,2");
+
+        assertEquals(2, table.balance(table.find("4000")));
+    }
+
+    private AccountTable load(String... lines) throws IOException {
+        Path file = Files.createTempFile(dir, "accounts", ".csv");
+        Files.write(file, List.of(lines));
+        return AccountTable.load(file);
+    }
+}
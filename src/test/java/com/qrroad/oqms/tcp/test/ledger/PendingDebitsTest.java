@@ -0,0 +1,107 @@
+package com.qrroad.oqms.tcp.test.ledger;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PendingDebitsTest {
+
+    @Test
+    void removeReturnsValueOnce() {
+        PendingDebits pending = new PendingDebits(16);
+        long key = PendingDebits.key("4000000000000001", "000001", "000000000001");
+
+        pending.put(key, 1234);
+
+        assertEquals(1, pending.size());
+        assertEquals(1234, pending.remove(key));
+        assertEquals(-1, pending.remove(key)); // 중복 취소
+        assertEquals(0, pending.size());
+    }
+
+    @Test
+    void keyDistinguishesEveryPart() {
+        long key = PendingDebits.key("4000000000000001", "000001", "000000000001");
+
+        assertNotEquals(key, PendingDebits.key("4000000000000002", "000001", "000000000001"));
+        assertNotEquals(key, PendingDebits.key("4000000000000001", "000002", "000000000001"));
+        assertNotEquals(key, PendingDebits.key("4000000000000001", "000001", "000000000002"));
+        assertNotEquals(PendingDebits.key("12", "3", "x"), PendingDebits.key("1", "23", "x"));
+        assertNotEquals(PendingDebits.key("0012", "1", "1"), PendingDebits.key("12", "1", "1"));
+    }
+
+    @Test
+    void sameTransactionRecordedTwiceIsReversibleTwice() {
+        PendingDebits pending = new PendingDebits(16);
+        long key = PendingDebits.key("4000", "000001", "R1");
+
+        pending.put(key, 10);
+        pending.put(key, 10);
+
+        assertEquals(10, pending.remove(key));
+        assertEquals(10, pending.remove(key));
+        assertEquals(-1, pending.remove(key));
+    }
+
+    @Test
+    void memoryIsFixedWhenOverfilled() {
+        PendingDebits pending = new PendingDebits(100);
+        int slots = pending.capacity();
+
+        for (int i = 0; i < 10_000; i++) {
+            pending.put(PendingDebits.key("4000", Integer.toString(i), "R"), i);
+        }
+
+        assertEquals(256, slots);
+        assertEquals(slots, pending.capacity());
+        assertEquals(slots, pending.size());
+        // 마지막 기록은 덮어써지기 전이므로 남아 있다
+        assertEquals(9_999, pending.remove(PendingDebits.key("4000", "9999", "R")));
+    }
+
+    @Test
+    void invalidCapacityIsRejected() {
+        assertThrows(IllegalArgumentException.class, () -> new PendingDebits(0));
+        assertThrows(IllegalArgumentException.class, () -> new PendingDebits(Integer.MAX_VALUE));
+    }
+
+    @Test
+    void concurrentPutAndRemoveLoseNothingBelowCapacity() throws Exception {
+        int threads = 8;
+        int perThread = 5_000;
+        PendingDebits pending = new PendingDebits(threads * perThread * 4);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<Long>> results = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                String terminal = "T" + t;
+                results.add(executor.submit(() -> {
+                    long removed = 0;
+                    for (int i = 0; i < perThread; i++) {
+                        pending.put(PendingDebits.key(terminal, Integer.toString(i), "R"), 1);
+                    }
+                    for (int i = 0; i < perThread; i++) {
+                        removed += pending.remove(PendingDebits.key(terminal, Integer.toString(i), "R")) == 1 ? 1 : 0;
+                    }
+                    return removed;
+                }));
+            }
+            long removed = 0;
+            for (Future<Long> result : results) {
+                removed += result.get(30, TimeUnit.SECONDS);
+            }
+            // 버킷이 넘치면 덮어쓸 수 있으므로 거의 전부, 그리고 남는 기록은 없다
+            assertTrue(removed > threads * perThread * 0.99, "removed " + removed);
+            assertEquals(0, pending.size());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,121 @@
+package com.qrroad.oqms.tcp.test.settlement;
+
+import com.qrroad.oqms.tcp.test.config.TcpTestProperties;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ReconciliationReportTest {
+
+    @TempDir
+    Path dir;
+
+    private TcpTestProperties properties;
+    private SettlementTotals totals;
+    private ReconciliationReport report;
+
+    @BeforeEach
+    void setUp() {
+        properties = new TcpTestProperties();
+        properties.getSettlement().setJournalFile(dir.resolve("journal/journal.csv").toString());
+        totals = new SettlementTotals(properties);
+        report = new ReconciliationReport(totals, properties);
+    }
+
+    @AfterEach
+    void tearDown() {
+        totals.close();
+    }
+
+    @Test
+    void journalMatchesLiveTotals() throws IOException {
+        totals.recordApproval("T1", "M1", 100, "000001", "R1");
+        totals.recordApproval("T1", "M1", 50, "000002", "R2");
+        totals.recordApproval("T2", "M1", 70, "000003", "R3");
+        totals.recordReversal("T1", "M1", 50, "000004", "R2");
+
+        Map<String, Object> result = report.build(null);
+
+        assertEquals(true, result.get("inBalance"));
+        assertEquals(4L, result.get("lines"));
+        assertEquals(0L, result.get("invalidLines"));
+        assertEquals(new Totals(3, 220, 1, 50).toMap(), result.get("recorded"));
+        assertEquals(result.get("live"), result.get("recorded"));
+        assertEquals(List.of(), result.get("discrepancies"));
+    }
+
+    @Test
+    void hostFileDiscrepanciesAreListedUpToLimit() throws IOException {
+        properties.getSettlement().setMaxDiscrepancies(1);
+        totals.recordApproval("T1", "M1", 100, "000001", "R1");
+        totals.recordApproval("T2", "M2", 70, "000002", "R2");
+        Files.write(dir.resolve("journal/host.csv"), List.of(
+                "# host export",
+                "APPROVAL,T1,M1,100,000001,R1,0",
+                "APPROVAL,T2,M2,90,000002,R2,0",
+                "REFUND,T2,M2,90,000003,R3,0",
+                "APPROVAL,T3,M3,abc,000004,R4,0"));
+
+        Map<String, Object> result = report.build("host.csv");
+
+        assertEquals(false, result.get("inBalance"));
+        assertEquals(4L, result.get("lines"));
+        assertEquals(2L, result.get("invalidLines"));
+        assertEquals(Map.of("count", 2, "mismatched", 1), result.get("terminals"));
+        List<?> discrepancies = (List<?>) result.get("discrepancies");
+        assertEquals(1, discrepancies.size());
+        Map<?, ?> first = (Map<?, ?>) discrepancies.get(0);
+        assertEquals("terminal", first.get("scope"));
+        assertEquals("T2", first.get("id"));
+    }
+
+    @Test
+    void rotatedJournalCanBeReported() throws IOException {
+        totals.recordApproval("T1", "M1", 100, "000001", "R1");
+        Path before = totals.getJournalFile();
+        totals.reset();
+
+        String rotated;
+        try (var files = Files.list(before.getParent())) {
+            rotated = files.map(path -> path.getFileName().toString())
+                    .filter(name -> name.startsWith("journal.csv."))
+                    .findFirst().orElseThrow();
+        }
+        Map<String, Object> result = report.build(rotated);
+
+        assertEquals(1L, result.get("lines"));
+        assertEquals(false, result.get("inBalance")); // 초기화 이후 누적 합계는 0
+    }
+
+    @Test
+    void filesOutsideJournalDirectoryAreRejected() throws IOException {
+        Path outside = Files.write(dir.resolve("outside.csv"), List.of("APPROVAL,T1,M1,1,,,0"));
+        Files.createSymbolicLink(dir.resolve("journal/link.csv"), outside);
+
+        assertThrows(IllegalArgumentException.class, () -> report.build("../outside.csv"));
+        assertThrows(IllegalArgumentException.class, () -> report.build(outside.toString()));
+        assertThrows(IllegalArgumentException.class, () -> report.build("/etc/passwd"));
+        assertThrows(IllegalArgumentException.class, () -> report.build("link.csv"));
+        assertThrows(IllegalArgumentException.class, () -> report.build("missing.csv"));
+        assertThrows(IllegalArgumentException.class, () -> report.build("."));
+    }
+
+    @Test
+    void reportNeedsJournal() {
+        TcpTestProperties noJournal = new TcpTestProperties();
+        SettlementTotals liveOnly = new SettlementTotals(noJournal);
+        ReconciliationReport reportWithoutJournal = new ReconciliationReport(liveOnly, noJournal);
+
+        assertThrows(IllegalArgumentException.class, () -> reportWithoutJournal.build(null));
+        assertThrows(IllegalArgumentException.class, () -> reportWithoutJournal.build("journal.csv"));
+    }
+}
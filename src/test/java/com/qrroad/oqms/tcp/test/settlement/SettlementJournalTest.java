@@ -0,0 +1,92 @@
+package com.qrroad.oqms.tcp.test.settlement;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SettlementJournalTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void flushWritesEverythingAppendedBefore() throws Exception {
+        Path file = dir.resolve("journal.csv");
+        int threads = 8;
+        int perThread = 2_000;
+
+        // 대기열보다 많이 기록해 가득 찬 대기열에서 워커가 기다리는 경로도 지난다
+        try (SettlementJournal journal = SettlementJournal.open(file.toString(), 64)) {
+            List<Thread> workers = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                String terminal = "T" + t;
+                Thread worker = new Thread(() -> {
+                    for (int i = 0; i < perThread; i++) {
+                        try {
+                            journal.append(SettlementJournal.APPROVAL, terminal, "M", 1, "000001", "R");
+                        } catch (IOException e) {
+                            throw new RuntimeException(e);
+                        }
+                    }
+                });
+                workers.add(worker);
+                worker.start();
+            }
+            for (Thread worker : workers) {
+                worker.join();
+            }
+            journal.flush();
+
+            List<String> lines = Files.readAllLines(file);
+            assertEquals(SettlementJournal.HEADER, lines.get(0));
+            assertEquals(threads * perThread + 1, lines.size());
+            assertTrue(lines.get(1).startsWith("APPROVAL,T"));
+        }
+    }
+
+    @Test
+    void rotateSplitsBeforeAndAfter() throws IOException {
+        Path file = dir.resolve("journal.csv");
+
+        try (SettlementJournal journal = SettlementJournal.open(file.toString(), 16)) {
+            journal.append(SettlementJournal.APPROVAL, "T1", "M1", 100, "000001", "R1");
+            Path rotated = journal.rotate();
+            journal.append(SettlementJournal.REVERSAL, "T1", "M1", 100, "000002", "R1");
+            journal.flush();
+
+            assertEquals("journal.csv.", rotated.getFileName().toString().replaceAll("\\d+$", ""));
+            List<String> before = Files.readAllLines(rotated);
+            List<String> after = Files.readAllLines(file);
+            assertEquals(2, before.size());
+            assertTrue(before.get(1).startsWith("APPROVAL,T1,M1,100,000001,R1,"));
+            assertEquals(List.of(SettlementJournal.HEADER), after.subList(0, 1));
+            assertTrue(after.get(1).startsWith("REVERSAL,T1,M1,100,000002,R1,"));
+        }
+    }
+
+    @Test
+    void closedJournalRejectsRecords() throws IOException {
+        SettlementJournal journal = SettlementJournal.open(dir.resolve("journal.csv").toString(), 16);
+        journal.append(SettlementJournal.APPROVAL, "T1", "M1", 1, null, null);
+        journal.close();
+        journal.close();
+
+        assertThrows(IOException.class, () -> journal.append(SettlementJournal.APPROVAL, "T1", "M1", 1, null, null));
+        assertThrows(IOException.class, journal::flush);
+        assertEquals(2, Files.readAllLines(journal.getFile()).size());
+    }
+
+    @Test
+    void noFileMeansNoJournal() throws IOException {
+        assertNull(SettlementJournal.open(null, 16));
+        assertNull(SettlementJournal.open(" ", 16));
+        assertThrows(IllegalArgumentException.class, () -> SettlementJournal.open(dir.resolve("j").toString(), 0));
+    }
+}
@@ -0,0 +1,100 @@
+package com.qrroad.oqms.tcp.test.transport;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BufferedFrameInputStreamTest {
+
+    @Test
+    void emptyBufferHasNoFrame() {
+        BufferedFrameInputStream in = new BufferedFrameInputStream(new ByteArrayInputStream(new byte[0]), 64);
+
+        assertEquals(0, in.buffered());
+        assertFalse(in.hasBufferedFrame(2));
+    }
+
+    @Test
+    void completeNextFrameIsDetected() throws IOException {
+        byte[] data = {0, 3, 'a', 'b', 'c', 0, 2, 'd', 'e'};
+        BufferedFrameInputStream in = new BufferedFrameInputStream(new ByteArrayInputStream(data), 64);
+
+        assertEquals(0, in.read(new byte[0])); // 아직 채우지 않음
+        in.read(new byte[5]);                  // 첫 프레임 소비 → 버퍼에 두 번째 프레임 전체
+
+        assertEquals(4, in.buffered());
+        assertTrue(in.hasBufferedFrame(2));
+    }
+
+    @Test
+    void partialNextFrameIsNotAFrame() throws IOException {
+        // 두 번째 프레임은 길이 5 인데 본문 2 바이트만 도착 (분할된 TCP 세그먼트)
+        byte[] data = {0, 1, 'a', 0, 5, 'b', 'c'};
+        BufferedFrameInputStream in = new BufferedFrameInputStream(new ByteArrayInputStream(data), 64);
+
+        in.read(new byte[3]);
+
+        assertEquals(4, in.buffered());
+        assertFalse(in.hasBufferedFrame(2));
+    }
+
+    @Test
+    void partialHeaderIsNotAFrame() throws IOException {
+        byte[] data = {0, 1, 'a', 0};
+        BufferedFrameInputStream in = new BufferedFrameInputStream(new ByteArrayInputStream(data), 64);
+
+        in.read(new byte[3]);
+
+        assertEquals(1, in.buffered());
+        assertFalse(in.hasBufferedFrame(2));
+    }
+
+    @Test
+    void fourByteHeaderAndZeroLength() throws IOException {
+        BufferedFrameInputStream in = new BufferedFrameInputStream(
+                new ByteArrayInputStream(new byte[]{'x', 0, 0, 0, 2, 'a', 'b'}), 64);
+        in.read();
+        assertTrue(in.hasBufferedFrame(4));
+
+        BufferedFrameInputStream zero = new BufferedFrameInputStream(
+                new ByteArrayInputStream(new byte[]{'x', 0, 0}), 64);
+        zero.read();
+        assertFalse(zero.hasBufferedFrame(2));
+    }
+
+    @Test
+    void peekingDoesNotReadFromUnderlyingStream() throws IOException {
+        CountingStream source = new CountingStream(new byte[]{0, 1, 'a', 0, 1});
+        BufferedFrameInputStream in = new BufferedFrameInputStream(source, 64);
+        in.read(new byte[3]);
+        int reads = source.reads;
+
+        assertFalse(in.hasBufferedFrame(2));
+        assertEquals(reads, source.reads);
+    }
+
+    private static final class CountingStream extends InputStream {
+        private final ByteArrayInputStream delegate;
+        private int reads;
+
+        CountingStream(byte[] data) {
+            this.delegate = new ByteArrayInputStream(data);
+        }
+
+        @Override
+        public int read() {
+            reads++;
+            return delegate.read();
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) {
+            reads++;
+            return delegate.read(b, off, len);
+        }
+    }
+}